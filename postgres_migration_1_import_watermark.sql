@@ -0,0 +1,2 @@
+-- Creates the import watermarks of the daily quote import.
+create table if not exists import_watermark (id bigserial primary key, symbol_id bigint unique, source varchar(15), last_day date, last_run timestamp, foreign key (symbol_id) references symbol(id));
@@ -0,0 +1,2 @@
+-- Creates the persisted jobs of the nightly quote import.
+create table if not exists import_job (id bigserial primary key, symbol_id bigint, symbol varchar(15), source varchar(15), priority int, state varchar(10), attempts int, run_day date, updated_at timestamp, unique (symbol_id, run_day), foreign key (symbol_id) references symbol(id));
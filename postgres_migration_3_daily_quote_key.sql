@@ -0,0 +1,5 @@
+-- Keeps the newest daily quote per (symbol_id, local_day) and adds the unique index the quote upserts need.
+begin;
+delete from daily_quote dq using daily_quote newer where dq.symbol_id = newer.symbol_id and dq.local_day = newer.local_day and dq.id < newer.id;
+create unique index if not exists daily_quote_symbol_id_local_day on daily_quote (symbol_id, local_day);
+commit;
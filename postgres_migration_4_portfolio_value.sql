@@ -0,0 +1,12 @@
+-- Moves the portfolio values from the marker symbols ('äüè' suffix) in daily_quote to portfolio_value.
+-- Runs after postgres_migration_1 to 3, the cleanup below needs import_watermark and import_job.
+begin;
+create table if not exists portfolio_value (portfolio_id bigint not null, local_day date not null, close numeric(16,4), primary key (portfolio_id, local_day), foreign key (portfolio_id) references portfolio(id));
+create temporary table portfolio_marker_symbol on commit drop as select pts.portfolio_id, s.id as symbol_id from symbol s left join portfolio_to_symbol pts on pts.symbol_id = s.id where s.symbol like '%äüè';
+insert into portfolio_value (portfolio_id, local_day, close) select pms.portfolio_id, dq.local_day, dq.close from daily_quote dq, portfolio_marker_symbol pms where dq.symbol_id = pms.symbol_id and pms.portfolio_id is not null and dq.close is not null on conflict (portfolio_id, local_day) do update set close = excluded.close;
+delete from daily_quote where symbol_id in (select symbol_id from portfolio_marker_symbol);
+delete from import_watermark where symbol_id in (select symbol_id from portfolio_marker_symbol);
+delete from import_job where symbol_id in (select symbol_id from portfolio_marker_symbol);
+delete from portfolio_to_symbol where symbol_id in (select symbol_id from portfolio_marker_symbol);
+delete from symbol where id in (select symbol_id from portfolio_marker_symbol);
+commit;
@@ -60,7 +60,7 @@ export class AddSymbolComponent implements OnInit {
 		debounceTime( 400 ),
         distinctUntilChanged(),
         tap(() => this.loading = true ),
-        switchMap( name => name && name.length > 2 ? this.symbolService.getSymbolByName( name )
+        switchMap( name => name && name.length > 2 ? this.symbolService.searchSymbols( name )
 			.pipe(map(localSymbols => this.filterPortfolioSymbols(localSymbols))) : this.clearSymbol()),
         tap(() => this.loading = false )
 	);
@@ -68,7 +68,7 @@ export class AddSymbolComponent implements OnInit {
 		debounceTime( 400 ),
         distinctUntilChanged(),
         tap(() => this.loading = true ),
-        switchMap( name => name && name.length > 2 ? this.symbolService.getSymbolBySymbol( name )
+        switchMap( name => name && name.length > 2 ? this.symbolService.searchSymbols( name )
 			.pipe(map(localSymbols => this.filterPortfolioSymbols(localSymbols))) : this.clearSymbol()),
         tap(() => this.loading = false )
 	);
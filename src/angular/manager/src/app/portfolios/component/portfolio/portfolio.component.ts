@@ -16,6 +16,7 @@ import { switchMap, tap } from 'rxjs/operators';
 import { Symbol } from '../../model/symbol';
 import { TokenService } from '../../../service/token.service';
 import { PortfolioService } from '../../service/portfolio.service';
+import { ServiceUtils } from '../../model/service-utils';
 import { Subscription, Subject } from 'rxjs';
 
 
@@ -29,6 +30,7 @@ export class PortfolioComponent implements OnInit, OnDestroy {
   reloadData = false;
   windowHeight = 0;
   portfolioName = '';
+  portfolioId: number = null;
   selSymbol: Symbol = null;
   private routeParamSubscription: Subscription;
 
@@ -43,7 +45,8 @@ export class PortfolioComponent implements OnInit, OnDestroy {
 		tap(() => this.reloadData = false))		
 		.subscribe(myPortfolio => {
 			this.symbols = myPortfolio.symbols;
-			this.portfolioName = myPortfolio.name;});
+			this.portfolioName = myPortfolio.name;
+			this.portfolioId = myPortfolio.id;});
   }
 
   ngOnDestroy(): void {
@@ -61,6 +64,11 @@ export class PortfolioComponent implements OnInit, OnDestroy {
 	//console.log(symbol);
   }
 
+  selectPortfolio(): void {
+	this.selSymbol = { id: null, symbol: this.portfolioName, name: this.portfolioName, changedAt: null,
+		source: ServiceUtils.QuoteSource.PORTFOLIO } as Symbol;
+  }
+
   back(): void {
 	this.router.navigate(['/portfolios/overview']);
   }
@@ -13,7 +13,9 @@
 import { Component, Input, Output, EventEmitter, OnInit, Inject, LOCALE_ID, ViewChild, ElementRef, AfterViewInit } from '@angular/core';
 import { Symbol } from '../../model/symbol';
 import { QuoteService } from '../../service/quote.service';
+import { PortfolioService } from '../../service/portfolio.service';
 import { Quote } from '../../model/quote';
+import { PortfolioValue } from '../../model/portfolio-value';
 import { MyChartData, MyChartValue } from '../../model/my-chart-data';
 import { DOCUMENT, formatDate } from '@angular/common';
 import { ServiceUtils } from '../../model/service-utils';
@@ -52,6 +54,8 @@ export class SymbolComponent implements OnInit {
 	quotes: Quote[] = [];
 	symbolData = { avgVolume: null, close: null, end: null, high: null, low: null, 
 		open: null, start: null, avgClose: null, medianClose: null, volatilityClose: null } as SymbolData;
+	@Input()
+	portfolioId: number = null;
 	@Output()
 	loadingData = new EventEmitter<boolean>();
 	readonly quotePeriodKeyDay = QuotePeriodKey.Day;
@@ -69,7 +73,7 @@ export class SymbolComponent implements OnInit {
 	timeline = true;
 	autoScale = true;
 
-	constructor(private quoteService: QuoteService, @Inject(DOCUMENT) private document: Document, 
+	constructor(private quoteService: QuoteService, private portfolioService: PortfolioService, @Inject(DOCUMENT) private document: Document, 
 		@Inject(LOCALE_ID) private locale: string) { }
 
 	ngOnInit(): void {
@@ -84,10 +88,6 @@ export class SymbolComponent implements OnInit {
 		this.selQuotePeriod = this.quotePeriods[0];
 	}	
 
-	replacePortfolioSymbol(symbolStr: string): string {
-		return ServiceUtils.isPortfolioSymbol(symbolStr) ? 'SymbolId' : symbolStr;
-	}
-
 	quotePeriodChanged() {
 		this.updateQuotes(this.selQuotePeriod.quotePeriodKey);
 		console.log(this.selQuotePeriod);
@@ -159,15 +159,29 @@ export class SymbolComponent implements OnInit {
 			this.loadingData.emit(true);
 			const startDate = this.createStartDate(selPeriod);
 			const endDate = new Date();
-			this.quoteService.getDailyQuotesFromStartToEnd(this.symbol.symbol, startDate, endDate)
-				.subscribe(myQuotes => {
-					this.quotes = myQuotes;
-					this.updateSymbolData();
-					this.loadingData.emit(false);
-				});
+			if (ServiceUtils.isPortfolioSymbol(this.symbol)) {
+				this.portfolioService.getPortfolioValues(this.portfolioId, startDate, endDate)
+					.subscribe(myValues => {
+						this.quotes = myValues.map(myValue => this.toQuote(myValue));
+						this.updateSymbolData();
+						this.loadingData.emit(false);
+					});
+			} else {
+				this.quoteService.getDailyQuotesFromStartToEnd(this.symbol.symbol, startDate, endDate)
+					.subscribe(myQuotes => {
+						this.quotes = myQuotes;
+						this.updateSymbolData();
+						this.loadingData.emit(false);
+					});
+			}
 		}
 	}
 
+	private toQuote(portfolioValue: PortfolioValue): Quote {
+		return { open: portfolioValue.value, high: portfolioValue.value, low: portfolioValue.value,
+			close: portfolioValue.value, volume: 0, timestamp: portfolioValue.localDay, symbol: this.symbol.symbol } as Quote;
+	}
+
 	private createStartDate(selPeriod: QuotePeriodKey): Date {
 		const startDate = new Date();
 		if (QuotePeriodKey.Month === selPeriod) {
@@ -15,11 +15,10 @@ import { Symbol } from './symbol';
 enum QuoteSource { ALPHAVANTAGE = 'ALPHAVANTAGE', YAHOO = 'YAHOO', PORTFOLIO = 'PORTFOLIO' }
 
 export class ServiceUtils {
-	public static readonly PORTFOLIO_MARKER = "äüè";
 	public static readonly QuoteSource = QuoteSource;
 	
-	public static isPortfolioSymbol(symbolStr: string): boolean {
-		return symbolStr.includes(ServiceUtils.PORTFOLIO_MARKER);
+	public static isPortfolioSymbol(symbol: Symbol): boolean {
+		return symbol && symbol.source && symbol.source === QuoteSource.PORTFOLIO;
 	}
 	
 	public static isIntraDayDataAvailiable(symbol: Symbol): boolean {
@@ -13,6 +13,7 @@
 import { Injectable } from '@angular/core';
 import { Observable } from 'rxjs';
 import { Portfolio } from '../model/portfolio'
+import { PortfolioValue } from '../model/portfolio-value';
 import { HttpClient } from '@angular/common/http';
 
 @Injectable()
@@ -28,6 +29,12 @@ export class PortfolioService {
 		return this.http.get<Portfolio>(`/rest/portfolio/id/${portfolioId}`);
 	}
 	
+	getPortfolioValues(portfolioId: number, start: Date, end: Date): Observable<PortfolioValue[]> {
+		const startStr = start.toISOString().split('T')[0];
+		const endStr = end.toISOString().split('T')[0];
+		return this.http.get<PortfolioValue[]>(`/rest/portfolio/id/${portfolioId}/values/start/${startStr}/end/${endStr}`);
+	}
+	
 	postPortfolio(portfolio: Portfolio): Observable<Portfolio> {
 		return this.http.post<Portfolio>('/rest/portfolio', portfolio);
 	}
@@ -27,4 +27,8 @@ export class SymbolService {
 	getSymbolByName(name: string): Observable<Symbol[]> {
 		return this.http.get<Symbol[]>(`/rest/symbol/name/${name}`);
 	}
+
+	searchSymbols(query: string, limit = 20): Observable<Symbol[]> {
+		return this.http.get<Symbol[]>(`/rest/symbol/search/${query}?limit=${limit}`);
+	}
 }
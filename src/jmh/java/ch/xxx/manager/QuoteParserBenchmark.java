@@ -0,0 +1,199 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import ch.xxx.manager.connector.QuoteParser;
+import ch.xxx.manager.connector.YahooQuoteLineParser;
+import ch.xxx.manager.dto.DailyQuoteImportDto;
+import ch.xxx.manager.dto.HkDailyQuoteImportDto;
+import ch.xxx.manager.dto.IntraDayQuoteImportDto;
+import ch.xxx.manager.entity.DailyQuoteEntity;
+import ch.xxx.manager.entity.IntraDayQuoteEntity;
+
+/**
+ * Rows per second of the import conversions with the jdk parsers (before) and
+ * the QuoteParser (after). The rows are read from the payload files in
+ * src/jmh/resources, an Alphavantage daily and intraday time series of IBM and
+ * a Yahoo history csv.
+ * Run with: ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QuoteParserBenchmark {
+	private static final int DAILY_ROWS = 1000;
+	private static final int INTRADAY_ROWS = 1170;
+	private static final int YAHOO_ROWS = 1000;
+	private final List<String> dailyKeys = new ArrayList<>();
+	private final List<DailyQuoteImportDto> dailyQuotes = new ArrayList<>();
+	private final List<String> intraDayKeys = new ArrayList<>();
+	private final List<IntraDayQuoteImportDto> intraDayQuotes = new ArrayList<>();
+	private List<String> yahooLines;
+	private String yahooHeader;
+	private ObjectReader yahooReader;
+
+	@Setup
+	public void setup() throws IOException {
+		ObjectMapper objectMapper = new ObjectMapper();
+		this.readTimeSeries(objectMapper, "/alphavantage-daily-ibm.json", "Time Series (Daily)",
+				DailyQuoteImportDto.class, this.dailyKeys, this.dailyQuotes, DAILY_ROWS);
+		this.readTimeSeries(objectMapper, "/alphavantage-intraday-ibm.json", "Time Series (1min)",
+				IntraDayQuoteImportDto.class, this.intraDayKeys, this.intraDayQuotes, INTRADAY_ROWS);
+		try (BufferedReader reader = new BufferedReader(
+				new InputStreamReader(this.openPayload("/yahoo-history-sxrt.csv"), StandardCharsets.UTF_8))) {
+			this.yahooHeader = reader.readLine();
+			this.yahooLines = reader.lines().filter(line -> !line.isBlank()).collect(Collectors.toList());
+		}
+		this.checkRows("/yahoo-history-sxrt.csv", this.yahooLines.size(), YAHOO_ROWS);
+		CsvSchema.Builder schemaBuilder = CsvSchema.builder();
+		for (String column : this.yahooHeader.split(",")) {
+			schemaBuilder.addColumn(column);
+		}
+		this.yahooReader = new CsvMapper().registerModule(new JavaTimeModule())
+				.readerFor(HkDailyQuoteImportDto.class).with(schemaBuilder.build().withNullValue("null"));
+	}
+
+	private <T> void readTimeSeries(ObjectMapper objectMapper, String payload, String seriesName, Class<T> dtoClass,
+			List<String> keys, List<T> quotes, int rows) throws IOException {
+		JsonNode series = objectMapper.readTree(this.openPayload(payload)).get(seriesName);
+		for (Iterator<Entry<String, JsonNode>> fields = series.fields(); fields.hasNext();) {
+			Entry<String, JsonNode> field = fields.next();
+			keys.add(field.getKey());
+			quotes.add(objectMapper.treeToValue(field.getValue(), dtoClass));
+		}
+		this.checkRows(payload, quotes.size(), rows);
+	}
+
+	private InputStream openPayload(String payload) throws IOException {
+		InputStream inputStream = QuoteParserBenchmark.class.getResourceAsStream(payload);
+		if (inputStream == null) {
+			throw new IOException(String.format("Payload %s not found.", payload));
+		}
+		return inputStream;
+	}
+
+	private void checkRows(String payload, int rows, int expectedRows) {
+		// the rows per operation of the benchmarks are constants
+		if (rows != expectedRows) {
+			throw new IllegalStateException(
+					String.format("Payload %s has %d rows instead of %d.", payload, rows, expectedRows));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(DAILY_ROWS)
+	public void alphavantageDailyJdk(Blackhole blackhole) {
+		for (int row = 0; row < DAILY_ROWS; row++) {
+			String dateStr = this.dailyKeys.get(row);
+			DailyQuoteImportDto dto = this.dailyQuotes.get(row);
+			blackhole.consume(LocalDate.parse(dateStr, DateTimeFormatter.ISO_LOCAL_DATE));
+			blackhole.consume(new DailyQuoteEntity(null, "IBM", new BigDecimal(dto.getOpen()),
+					new BigDecimal(dto.getHigh()), new BigDecimal(dto.getLow()), new BigDecimal(dto.getAjustedClose()),
+					Long.parseLong(dto.getVolume()), LocalDate.parse(dateStr, DateTimeFormatter.ISO_LOCAL_DATE), 1L,
+					null));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(DAILY_ROWS)
+	public void alphavantageDailyFast(Blackhole blackhole) {
+		for (int row = 0; row < DAILY_ROWS; row++) {
+			DailyQuoteImportDto dto = this.dailyQuotes.get(row);
+			blackhole.consume(new DailyQuoteEntity(null, "IBM", QuoteParser.parseDecimal(dto.getOpen()),
+					QuoteParser.parseDecimal(dto.getHigh()), QuoteParser.parseDecimal(dto.getLow()),
+					QuoteParser.parseDecimal(dto.getAjustedClose()), QuoteParser.parseLong(dto.getVolume()),
+					QuoteParser.parseDate(this.dailyKeys.get(row)), 1L, null));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(INTRADAY_ROWS)
+	public void alphavantageIntraDayJdk(Blackhole blackhole) {
+		for (int row = 0; row < INTRADAY_ROWS; row++) {
+			IntraDayQuoteImportDto dto = this.intraDayQuotes.get(row);
+			blackhole.consume(new IntraDayQuoteEntity(null, "IBM", new BigDecimal(dto.getOpen()),
+					new BigDecimal(dto.getHigh()), new BigDecimal(dto.getLow()), new BigDecimal(dto.getClose()),
+					Long.parseLong(dto.getVolume()), LocalDateTime.parse(this.intraDayKeys.get(row),
+							DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")),
+					1L));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(INTRADAY_ROWS)
+	public void alphavantageIntraDayFast(Blackhole blackhole) {
+		for (int row = 0; row < INTRADAY_ROWS; row++) {
+			IntraDayQuoteImportDto dto = this.intraDayQuotes.get(row);
+			blackhole.consume(new IntraDayQuoteEntity(null, "IBM", QuoteParser.parseDecimal(dto.getOpen()),
+					QuoteParser.parseDecimal(dto.getHigh()), QuoteParser.parseDecimal(dto.getLow()),
+					QuoteParser.parseDecimal(dto.getClose()), QuoteParser.parseLong(dto.getVolume()),
+					QuoteParser.parseDateTime(this.intraDayKeys.get(row)), 1L));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(YAHOO_ROWS)
+	public void yahooLinesJackson(Blackhole blackhole) throws IOException {
+		for (int row = 0; row < YAHOO_ROWS; row++) {
+			blackhole.consume(this.yahooReader.<HkDailyQuoteImportDto>readValue(this.yahooLines.get(row)));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(YAHOO_ROWS)
+	public void yahooLinesFast(Blackhole blackhole) {
+		YahooQuoteLineParser lineParser = new YahooQuoteLineParser(this.yahooHeader);
+		for (int row = 0; row < YAHOO_ROWS; row++) {
+			blackhole.consume(lineParser.parse(this.yahooLines.get(row)));
+		}
+	}
+}
@@ -0,0 +1,76 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.xxx.manager.service.TimeSeries;
+
+/**
+ * Time of the portfolio value join of 50 symbols with 20 years of daily
+ * values, the symbols are added to the portfolio at different days. No
+ * reference result is recorded, the timings depend on the machine.
+ * Run with: ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimeSeriesBenchmark {
+	private static final int SYMBOLS = 50;
+	private static final int YEARS = 20;
+	private final List<TimeSeries> valueSeries = new ArrayList<>();
+	private final int[] activeFrom = new int[SYMBOLS];
+	private final int[] activeTo = new int[SYMBOLS];
+
+	@Setup
+	public void setup() {
+		Random random = new Random(42L);
+		LocalDate start = LocalDate.of(2000, 1, 3);
+		LocalDate end = start.plusYears(YEARS);
+		for (int symbol = 0; symbol < SYMBOLS; symbol++) {
+			TimeSeries.Builder builder = new TimeSeries.Builder(YEARS * 260);
+			for (LocalDate day = start; day.isBefore(end); day = day.plusDays(1)) {
+				if (day.getDayOfWeek() != DayOfWeek.SATURDAY && day.getDayOfWeek() != DayOfWeek.SUNDAY) {
+					builder.add((int) day.toEpochDay(), 100_000L + random.nextInt(10_000_000));
+				}
+			}
+			this.valueSeries.add(builder.build());
+			this.activeFrom[symbol] = (int) start.plusDays(random.nextInt(365 * YEARS / 2)).toEpochDay();
+			this.activeTo[symbol] = Integer.MAX_VALUE;
+		}
+	}
+
+	@Benchmark
+	public TimeSeries sumJoin() {
+		return TimeSeries.sumJoin(this.valueSeries, this.activeFrom, this.activeTo);
+	}
+}
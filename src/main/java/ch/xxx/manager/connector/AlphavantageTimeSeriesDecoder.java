@@ -0,0 +1,126 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager.connector;
+
+import java.io.IOException;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+/**
+ * Decodes the 'Time Series (...)' object of an Alphavantage response chunk by
+ * chunk. Only the tokens of the quote that is currently parsed are buffered, the
+ * completed quotes are returned as (date, quote) entries.
+ * An instance keeps the parser state and must only be used for one response.
+ */
+public class AlphavantageTimeSeriesDecoder<T> {
+	private static final Logger LOGGER = LoggerFactory.getLogger(AlphavantageTimeSeriesDecoder.class);
+	private static final String TIME_SERIES_PREFIX = "Time Series";
+	private static final List<String> MESSAGE_FIELDS = List.of("Note", "Information", "Error Message");
+	private final ObjectReader objectReader;
+	private final JsonParser parser;
+	private final ByteArrayFeeder feeder;
+	private int depth = 0;
+	private boolean inTimeSeries = false;
+	private String fieldName;
+	private String quoteKey;
+	private TokenBuffer quoteTokens;
+
+	public AlphavantageTimeSeriesDecoder(ObjectMapper objectMapper, Class<T> valueType) {
+		this.objectReader = objectMapper.readerFor(valueType)
+				.without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+		try {
+			this.parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+		} catch (IOException e) {
+			throw new RuntimeException("Failed to create json parser.", e);
+		}
+		this.feeder = (ByteArrayFeeder) this.parser.getNonBlockingInputFeeder();
+	}
+
+	public List<Entry<String, T>> decode(byte[] chunk) {
+		try {
+			this.feeder.feedInput(chunk, 0, chunk.length);
+			return this.parseTokens();
+		} catch (IOException e) {
+			throw new RuntimeException("Failed to decode time series.", e);
+		}
+	}
+
+	public List<Entry<String, T>> endOfInput() {
+		this.feeder.endOfInput();
+		try {
+			List<Entry<String, T>> result = this.parseTokens();
+			this.parser.close();
+			return result;
+		} catch (IOException e) {
+			throw new RuntimeException("Failed to decode time series.", e);
+		}
+	}
+
+	private List<Entry<String, T>> parseTokens() throws IOException {
+		List<Entry<String, T>> result = new ArrayList<>();
+		JsonToken token;
+		while ((token = this.parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+			if (this.quoteTokens != null) {
+				this.bufferQuoteToken(token).ifPresent(result::add);
+			} else if (token.isStructStart()) {
+				this.depth++;
+				if (this.inTimeSeries && this.depth == 3) {
+					this.quoteTokens = new TokenBuffer(this.parser);
+					this.quoteTokens.copyCurrentEvent(this.parser);
+				}
+			} else if (token.isStructEnd()) {
+				this.depth--;
+				this.inTimeSeries = this.inTimeSeries && this.depth > 1;
+			} else if (token == JsonToken.FIELD_NAME) {
+				this.fieldName = this.parser.getCurrentName();
+				if (this.depth == 1) {
+					this.inTimeSeries = this.fieldName.startsWith(TIME_SERIES_PREFIX);
+				} else if (this.depth == 2 && this.inTimeSeries) {
+					this.quoteKey = this.fieldName;
+				}
+			} else if (this.depth == 1 && MESSAGE_FIELDS.contains(this.fieldName)) {
+				LOGGER.warn("Alphavantage message: {}", this.parser.getText());
+			}
+		}
+		return result;
+	}
+
+	private Optional<Entry<String, T>> bufferQuoteToken(JsonToken token) throws IOException {
+		this.quoteTokens.copyCurrentEvent(this.parser);
+		if (token.isStructStart()) {
+			this.depth++;
+		} else if (token.isStructEnd()) {
+			this.depth--;
+		}
+		if (this.depth > 2) {
+			return Optional.empty();
+		}
+		T quote = this.objectReader.readValue(this.quoteTokens.asParser());
+		this.quoteTokens = null;
+		return Optional.of(new SimpleImmutableEntry<>(this.quoteKey, quote));
+	}
+}
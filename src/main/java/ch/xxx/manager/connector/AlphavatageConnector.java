@@ -14,17 +14,25 @@ package ch.xxx.manager.connector;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Map.Entry;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.stereotype.Component;
-import org.springframework.web.reactive.function.client.WebClient;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import ch.xxx.manager.dto.DailyFxWrapperImportDto;
-import ch.xxx.manager.dto.DailyWrapperImportDto;
-import ch.xxx.manager.dto.IntraDayWrapperImportDto;
+import ch.xxx.manager.dto.DailyQuoteImportDto;
+import ch.xxx.manager.dto.IntraDayQuoteImportDto;
 import ch.xxx.manager.entity.SymbolEntity;
+import ch.xxx.manager.entity.SymbolEntity.QuoteSource;
+import ch.xxx.manager.metrics.ImportMetrics;
+import ch.xxx.manager.metrics.ImportMetrics.ImportStage;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Component
@@ -32,40 +40,57 @@ public class AlphavatageConnector {
 	private static final Logger LOGGER = LoggerFactory.getLogger(AlphavatageConnector.class);
 	@Value("${api.key:xxx}")
 	private String apiKey;
+	@Value("${connector.alphavantage.url:https://www.alphavantage.co}")
+	private String alphavantageUrl;
+	@Autowired
+	private ConnectorClient connectorClient;
+	@Autowired
+	private ObjectMapper objectMapper;
+	@Autowired
+	private ImportMetrics importMetrics;
 	
-	public Mono<IntraDayWrapperImportDto> getTimeseriesIntraDay(String symbol) {
+	public Flux<Entry<String, IntraDayQuoteImportDto>> getTimeseriesIntraDay(String symbol) {
 		try {
-			return WebClient.create().mutate().exchangeStrategies(ConnectorUtils.createLargeResponseStrategy()).build().get()
-				.uri(new URI(String.format("https://www.alphavantage.co/query?function=TIME_SERIES_INTRADAY&symbol=%s&interval=5min&outputsize=full&apikey=%s", symbol, this.apiKey)))				                            
-				.retrieve().bodyToMono(IntraDayWrapperImportDto.class);
+			return this.decodeTimeSeries(this.connectorClient.getBody(new URI(String.format("%s/query?function=TIME_SERIES_INTRADAY&symbol=%s&interval=5min&outputsize=full&apikey=%s", this.alphavantageUrl, symbol, this.apiKey))),
+				symbol, IntraDayQuoteImportDto.class);
 		} catch (URISyntaxException e) {
 			LOGGER.error("getTimeseriesHistory failed.",e);
 		}
-		return Mono.empty();
+		return Flux.empty();
 	}
 	
-	public Mono<DailyWrapperImportDto> getTimeseriesDailyHistory(String symbol, boolean fullSeries) {
+	public Flux<Entry<String, DailyQuoteImportDto>> getTimeseriesDailyHistory(String symbol, boolean fullSeries) {
 		try {
 			String fullSeriesStr = fullSeries ? "&outputsize=full" : ""; 
-			return WebClient.create().mutate().exchangeStrategies(ConnectorUtils.createLargeResponseStrategy()).build().get()
-				.uri(new URI(String.format("https://www.alphavantage.co/query?function=TIME_SERIES_DAILY_ADJUSTED&symbol=%s%s&apikey=%s", symbol, fullSeriesStr, this.apiKey)))				                            
-				.retrieve().bodyToMono(DailyWrapperImportDto.class);
+			return this.decodeTimeSeries(this.connectorClient.getBody(new URI(String.format("%s/query?function=TIME_SERIES_DAILY_ADJUSTED&symbol=%s%s&apikey=%s", this.alphavantageUrl, symbol, fullSeriesStr, this.apiKey))),
+				symbol, DailyQuoteImportDto.class);
 		} catch (URISyntaxException e) {
 			LOGGER.error("getTimeseriesHistory failed.",e);
 		}
-		return Mono.empty();
+		return Flux.empty();
 	}
 	
 	public Mono<DailyFxWrapperImportDto> getFxTimeseriesDailyHistory(String to_currency, boolean fullSeries) {
 		try {
 			final String from_currency = SymbolEntity.SymbolCurrency.EUR.toString();
 			String fullSeriesStr = fullSeries ? "&outputsize=full" : ""; 
-			return WebClient.create().mutate().exchangeStrategies(ConnectorUtils.createLargeResponseStrategy()).build().get()
-				.uri(new URI(String.format("https://www.alphavantage.co/query?function=FX_DAILY&from_symbol=%s&to_symbol=%s%s&apikey=%s", from_currency, to_currency, fullSeriesStr, this.apiKey)))				                            
-				.retrieve().bodyToMono(DailyFxWrapperImportDto.class);
+			return this.connectorClient.getMono(new URI(String.format("%s/query?function=FX_DAILY&from_symbol=%s&to_symbol=%s%s&apikey=%s", this.alphavantageUrl, from_currency, to_currency, fullSeriesStr, this.apiKey)),
+				DailyFxWrapperImportDto.class);
 		} catch (URISyntaxException e) {
 			LOGGER.error("getTimeseriesHistory failed.",e);
 		}
 		return Mono.empty();
 	}
-}
+	
+	private <T> Flux<Entry<String, T>> decodeTimeSeries(Flux<DataBuffer> dataBuffers, String symbol,
+			Class<T> valueType) {
+		final String source = QuoteSource.ALPHAVANTAGE.toString();
+		final String exchange = ConnectorUtils.findExchange(symbol);
+		return this.importMetrics.recordStage(Flux.defer(() -> {
+			AlphavantageTimeSeriesDecoder<T> decoder = new AlphavantageTimeSeriesDecoder<>(this.objectMapper, valueType);
+			return this.importMetrics.recordFetch(dataBuffers, source, exchange)
+					.concatMapIterable(dataBuffer -> decoder.decode(ConnectorUtils.readBytes(dataBuffer)))
+					.concatWith(Flux.defer(() -> Flux.fromIterable(decoder.endOfInput())));
+		}), ImportStage.DECODE, source, exchange);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,107 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager.connector;
+
+import java.net.ConnectException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ConnectTimeoutException;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.util.retry.Retry;
+
+/**
+ * The http client of the market data connectors. The connections are pooled per
+ * host, the pool size caps the requests in flight to one host. Requests that
+ * fail with 5xx, 429 or a connect error are retried with jittered backoff,
+ * before any data of the response is emitted.
+ */
+@Component
+public class ConnectorClient {
+	private static final Logger LOGGER = LoggerFactory.getLogger(ConnectorClient.class);
+	@Value("${connector.http.connect-timeout-ms:5000}")
+	private int connectTimeoutMs;
+	@Value("${connector.http.read-timeout-ms:30000}")
+	private long readTimeoutMs;
+	@Value("${connector.http.max-connections-per-host:8}")
+	private int maxConnectionsPerHost;
+	@Value("${connector.http.pending-acquire-timeout-ms:60000}")
+	private long pendingAcquireTimeoutMs;
+	@Value("${connector.http.retry.max-attempts:3}")
+	private long retryMaxAttempts;
+	@Value("${connector.http.retry.min-backoff-ms:500}")
+	private long retryMinBackoffMs;
+	private ConnectionProvider connectionProvider;
+	private WebClient webClient;
+	private Retry retry;
+
+	@PostConstruct
+	public void init() {
+		this.connectionProvider = ConnectionProvider.builder("connector").maxConnections(this.maxConnectionsPerHost)
+				.pendingAcquireTimeout(Duration.ofMillis(this.pendingAcquireTimeoutMs)).build();
+		HttpClient httpClient = HttpClient.create(this.connectionProvider).compress(true)
+				.tcpConfiguration(tcpClient -> tcpClient
+						.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, this.connectTimeoutMs)
+						.doOnConnected(connection -> connection.addHandlerLast(
+								new ReadTimeoutHandler(this.readTimeoutMs, TimeUnit.MILLISECONDS))));
+		this.webClient = WebClient.builder().clientConnector(new ReactorClientHttpConnector(httpClient))
+				.exchangeStrategies(ConnectorUtils.createLargeResponseStrategy()).build();
+		this.retry = Retry.backoff(this.retryMaxAttempts, Duration.ofMillis(this.retryMinBackoffMs)).jitter(0.5d)
+				.filter(ConnectorClient::isRetryable).doBeforeRetry(signal -> LOGGER.warn("Retry {} after: {}",
+						signal.totalRetries() + 1, signal.failure().getMessage()));
+	}
+
+	@PreDestroy
+	public void destroy() {
+		this.connectionProvider.dispose();
+	}
+
+	public Flux<DataBuffer> getBody(URI uri) {
+		return this.webClient.get().uri(uri).retrieve().bodyToFlux(DataBuffer.class).retryWhen(this.retry);
+	}
+
+	public <T> Mono<T> getMono(URI uri, Class<T> valueType) {
+		return this.webClient.get().uri(uri).retrieve().bodyToMono(valueType).retryWhen(this.retry);
+	}
+
+	public <T> Flux<T> getFlux(URI uri, Class<T> valueType) {
+		return this.webClient.get().uri(uri).retrieve().bodyToFlux(valueType).retryWhen(this.retry);
+	}
+
+	private static boolean isRetryable(Throwable throwable) {
+		if (throwable instanceof WebClientResponseException) {
+			int status = ((WebClientResponseException) throwable).getRawStatusCode();
+			return status >= 500 || status == HttpStatus.TOO_MANY_REQUESTS.value();
+		}
+		return throwable instanceof ConnectException || throwable instanceof ConnectTimeoutException;
+	}
+}
@@ -12,9 +12,19 @@
  */
 package ch.xxx.manager.connector;
 
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.StringDecoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.web.reactive.function.client.ExchangeStrategies;
 
+import reactor.core.publisher.Flux;
+
 public class ConnectorUtils {	
+	private static final StringDecoder LINE_DECODER = StringDecoder.textPlainOnly(List.of("\r\n", "\n"), true);
 	
 	public static ExchangeStrategies createLargeResponseStrategy() {
 		return ExchangeStrategies.builder()
@@ -22,4 +32,27 @@ public class ConnectorUtils {
                         .maxInMemorySize(10 * 1024 * 1024))
                 .build();
 	}
+	
+	public static byte[] readBytes(DataBuffer dataBuffer) {
+		try {
+			byte[] bytes = new byte[dataBuffer.readableByteCount()];
+			dataBuffer.read(bytes);
+			return bytes;
+		} finally {
+			DataBufferUtils.release(dataBuffer);
+		}
+	}
+	
+	public static Flux<String> decodeLines(Flux<DataBuffer> dataBuffers) {
+		return LINE_DECODER.decode(dataBuffers, ResolvableType.forClass(String.class), null, Map.of());
+	}
+	
+	public static String findExchange(String symbol) {
+		int index = symbol == null ? -1 : symbol.lastIndexOf('.');
+		if (index < 0) {
+			return "US";
+		}
+		String suffix = symbol.substring(index + 1).toUpperCase();
+		return suffix.startsWith("DE") ? "XETRA" : suffix.equals("HK") ? "HKEX" : suffix;
+	}
 }
@@ -17,8 +17,9 @@ import java.net.URISyntaxException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import org.springframework.web.reactive.function.client.WebClient;
 
 import ch.xxx.manager.dto.HkSymbolImportDto;
 import reactor.core.publisher.Flux;
@@ -26,12 +27,16 @@ import reactor.core.publisher.Flux;
 @Component
 public class HkexConnector {
 	private static final Logger LOGGER = LoggerFactory.getLogger(HkexConnector.class);
+	@Autowired
+	private ConnectorClient connectorClient;
+	@Value("${connector.hkex.url:https://www.hkexnews.hk}")
+	private String hkexUrl;
 	
 	public Flux<HkSymbolImportDto> importSymbols() {
 		try {
-			return WebClient.create().mutate().exchangeStrategies(ConnectorUtils.createLargeResponseStrategy()).build().get()
-				.uri(new URI("https://www.hkexnews.hk/ncms/script/eds/activestock_sehk_e.json"))
-				.retrieve().bodyToFlux(HkSymbolImportDto.class);
+			return this.connectorClient.getFlux(
+					new URI(String.format("%s/ncms/script/eds/activestock_sehk_e.json", this.hkexUrl)),
+					HkSymbolImportDto.class);
 		} catch (URISyntaxException e) {
 			LOGGER.error("Import hk symbols failed.",e);
 		}
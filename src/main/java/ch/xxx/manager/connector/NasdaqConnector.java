@@ -12,9 +12,11 @@
  */
 package ch.xxx.manager.connector;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedReader;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.PrintWriter;
 import java.net.SocketException;
 import java.nio.charset.Charset;
@@ -27,60 +29,102 @@ import org.apache.commons.net.ftp.FTPFile;
 import org.apache.commons.net.ftp.FTPReply;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
 
+/**
+ * Streams the NASDAQ symbol files line by line. The blocking ftp calls run on
+ * the bounded elastic scheduler, a line is only read when it is requested.
+ */
 @Component
 public class NasdaqConnector {
 	private static final Logger LOGGER = LoggerFactory.getLogger(NasdaqConnector.class);
-	private static final String HOST = "ftp.nasdaqtrader.com";
 	private static final String DIR = "/symboldirectory/";
 	private static final List<String> IMPORT_FILES = Arrays.asList("nasdaqlisted.txt", "otherlisted.txt");
+	@Value("${connector.nasdaq.host:ftp.nasdaqtrader.com}")
+	private String host;
+	@Value("${connector.nasdaq.port:21}")
+	private int port;
 
 	public Flux<String> importSymbols() {
+		return Flux.using(() -> this.connect(), ftp -> Flux.fromIterable(IMPORT_FILES)
+				.concatMap(fileName -> this.importSymbols(fileName, ftp), 1), ftp -> this.disconnect(ftp))
+				.subscribeOn(Schedulers.boundedElastic());
+	}
+
+	private FTPClient connect() throws IOException {
 		FTPClient ftp = new FTPClient();
 		ftp.addProtocolCommandListener(new PrintCommandListener(new PrintWriter(System.out)));
 		try {
 			ftp.setStrictReplyParsing(false);
-			ftp.connect(HOST);			
+			ftp.connect(this.host, this.port);
 			ftp.enterLocalPassiveMode();
 			ftp.login("anonymous", "sven@gmx.de");
 			if (!FTPReply.isPositiveCompletion(ftp.getReplyCode())) {
-				ftp.disconnect();
-				throw new SocketException(String.format("Failed to connect to %s", HOST));
+				throw new SocketException(String.format("Failed to connect to %s", this.host));
 			}
 			FTPFile[] files = ftp.listFiles(DIR);
-			if (2 != Arrays.stream(files).map(FTPFile::getName).filter(file -> IMPORT_FILES.contains(file)).count()) {
+			if (IMPORT_FILES.size() != Arrays.stream(files).map(FTPFile::getName)
+					.filter(file -> IMPORT_FILES.contains(file)).count()) {
 				throw new FileNotFoundException(
 						String.format("Files: %s, %s", IMPORT_FILES.get(0), IMPORT_FILES.get(1)));
 			}
-		} catch (IOException e) {			
-			throw new RuntimeException(e);
+			return ftp;
+		} catch (IOException e) {
+			this.disconnect(ftp);
+			throw e;
+		}
+	}
+
+	private void disconnect(FTPClient ftp) {
+		try {
+			if (ftp.isConnected()) {
+				ftp.logout();
+				ftp.disconnect();
+			}
+		} catch (IOException e) {
+			LOGGER.warn("Failed to close ftp connection to: {}", this.host, e);
 		}
-		return Flux.concat(this.importSymbols(IMPORT_FILES.get(0), ftp), this.importSymbols(IMPORT_FILES.get(1), ftp))
-				.doAfterTerminate(() -> {
-					try {
-						ftp.logout();
-						ftp.disconnect();
-					} catch (IOException e) {
-						throw new RuntimeException(String.format("Failed to close ftp connection to: %s", HOST));
-					}
-				});
 	}
 
 	private Flux<String> importSymbols(String fileName, FTPClient ftp) {
-		String[] symbols = new String[0];
-		try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-			if(ftp.retrieveFile(String.format("/%s/%s", DIR, fileName), baos)) {
+		return Flux.using(() -> this.openFile(fileName, ftp), reader -> Flux.<String>generate(sink -> {
+			try {
+				String line = reader.readLine();
+				if (line == null) {
+					sink.complete();
+				} else {
+					sink.next(line);
+				}
+			} catch (IOException e) {
+				sink.error(e);
+			}
+		}), reader -> this.closeFile(fileName, ftp, reader));
+	}
+
+	private BufferedReader openFile(String fileName, FTPClient ftp) throws IOException {
+		InputStream inputStream = ftp.retrieveFileStream(DIR + fileName);
+		if (inputStream == null) {
+			throw new FileNotFoundException(String.format("File import failed: %s reply: %s", fileName,
+					ftp.getReplyString()));
+		}
+		return new BufferedReader(new InputStreamReader(inputStream, Charset.defaultCharset()));
+	}
+
+	private void closeFile(String fileName, FTPClient ftp, BufferedReader reader) {
+		try {
+			reader.close();
+			// finishes the transfer, the session can be used for the next file
+			if (ftp.completePendingCommand()) {
 				LOGGER.info("File imported: {}", fileName);
 			} else {
 				LOGGER.warn("File import failed: {}", fileName);
 			}
-			symbols = baos.toString(Charset.defaultCharset()).split("\\r?\\n");
 		} catch (IOException e) {
-			throw new RuntimeException(e);
+			LOGGER.warn("File import failed: {}", fileName, e);
 		}
-		return Flux.fromArray(symbols);
 	}
 }
@@ -0,0 +1,141 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager.connector;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Parsers for the fixed layouts of the quote imports. The dates are read
+ * digit by digit and the prices with up to 18 digits are built from a long
+ * without an intermediate char array. Other input is handed to the jdk parsers.
+ */
+public final class QuoteParser {
+	private static final String NULL_VALUE = "null";
+	private static final int MAX_LONG_DIGITS = 18;
+
+	private QuoteParser() {
+	}
+
+	/**
+	 * Parses 'yyyy-MM-dd', trailing characters are ignored.
+	 */
+	public static LocalDate parseDate(CharSequence text) {
+		return parseDate(text, 0);
+	}
+
+	public static LocalDate parseDate(CharSequence text, int from) {
+		if (text.length() < from + 10 || text.charAt(from + 4) != '-' || text.charAt(from + 7) != '-') {
+			return LocalDate.parse(text.subSequence(from, Math.min(text.length(), from + 10)));
+		}
+		return LocalDate.of(parseDigits(text, from, from + 4), parseDigits(text, from + 5, from + 7),
+				parseDigits(text, from + 8, from + 10));
+	}
+
+	/**
+	 * Parses 'yyyy-MM-dd HH:mm:ss' and 'yyyy-MM-ddTHH:mm:ss'.
+	 */
+	public static LocalDateTime parseDateTime(CharSequence text) {
+		if (text.length() != 19 || (text.charAt(10) != ' ' && text.charAt(10) != 'T') || text.charAt(13) != ':'
+				|| text.charAt(16) != ':') {
+			return LocalDateTime.parse(text.toString().replace(' ', 'T'));
+		}
+		return LocalDateTime.of(parseDate(text), LocalTime.of(parseDigits(text, 11, 13),
+				parseDigits(text, 14, 16), parseDigits(text, 17, 19)));
+	}
+
+	public static BigDecimal parseDecimal(CharSequence text) {
+		return text == null ? null : parseDecimal(text, 0, text.length());
+	}
+
+	/**
+	 * Parses a plain decimal like '-124.1000' between from and to. Returns null
+	 * for an empty value or 'null'.
+	 */
+	public static BigDecimal parseDecimal(CharSequence text, int from, int to) {
+		if (isNull(text, from, to)) {
+			return null;
+		}
+		int index = from;
+		boolean negative = text.charAt(index) == '-';
+		if (negative || text.charAt(index) == '+') {
+			index++;
+		}
+		long unscaled = 0L;
+		int scale = -1;
+		int digits = 0;
+		for (; index < to; index++) {
+			char c = text.charAt(index);
+			if (c >= '0' && c <= '9') {
+				if (++digits > MAX_LONG_DIGITS) {
+					return new BigDecimal(text.subSequence(from, to).toString());
+				}
+				unscaled = unscaled * 10L + (c - '0');
+				scale = scale < 0 ? scale : scale + 1;
+			} else if (c == '.' && scale < 0) {
+				scale = 0;
+			} else {
+				return new BigDecimal(text.subSequence(from, to).toString());
+			}
+		}
+		if (digits == 0) {
+			throw new NumberFormatException("No digits in: " + text.subSequence(from, to));
+		}
+		return BigDecimal.valueOf(negative ? -unscaled : unscaled, Math.max(scale, 0));
+	}
+
+	public static Long parseLong(CharSequence text) {
+		return text == null ? null : parseLong(text, 0, text.length());
+	}
+
+	/**
+	 * Parses an integer between from and to, a fraction like '.0' is cut off.
+	 * Returns null for an empty value or 'null'.
+	 */
+	public static Long parseLong(CharSequence text, int from, int to) {
+		if (isNull(text, from, to)) {
+			return null;
+		}
+		BigDecimal value = parseDecimal(text, from, to);
+		return value.scale() == 0 ? value.longValueExact() : value.longValue();
+	}
+
+	private static boolean isNull(CharSequence text, int from, int to) {
+		if (from >= to) {
+			return true;
+		}
+		if (to - from != NULL_VALUE.length()) {
+			return false;
+		}
+		for (int index = 0; index < NULL_VALUE.length(); index++) {
+			if (text.charAt(from + index) != NULL_VALUE.charAt(index)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int parseDigits(CharSequence text, int from, int to) {
+		int result = 0;
+		for (int index = from; index < to; index++) {
+			char c = text.charAt(index);
+			if (c < '0' || c > '9') {
+				throw new NumberFormatException("Not a digit at " + index + " in: " + text);
+			}
+			result = result * 10 + (c - '0');
+		}
+		return result;
+	}
+}
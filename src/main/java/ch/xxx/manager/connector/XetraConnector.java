@@ -14,16 +14,12 @@ package ch.xxx.manager.connector;
 
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import org.springframework.web.reactive.function.client.WebClient;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -31,15 +27,20 @@ import reactor.core.publisher.Mono;
 @Component
 public class XetraConnector {
 	private static final Logger LOGGER = LoggerFactory.getLogger(XetraConnector.class);
-	private static final String XETRA_URL = "https://www.xetra.com/xetra-de/instrumente/alle-handelbaren-instrumente";
+	private static final String XETRA_PATH = "/xetra-de/instrumente/alle-handelbaren-instrumente";
+	private static final String CSV_FILE = "allTradableInstruments.csv";
+	private static final String HREF = "href=\"";
+	@Autowired
+	private ConnectorClient connectorClient;
+	@Value("${connector.xetra.url:https://www.xetra.com}")
+	private String xetraUrl;
 	
 	public Flux<String> importXetraSymbols() {
 		try {
-			return this.getSymbolCsv(WebClient.create().get()
-			.uri(new URI(XETRA_URL))
-			.retrieve().toEntity(String.class).flatMap(htmlPage -> Mono.just(this.findCsvUrl(htmlPage.getBody()))));
+			return this.getSymbolCsv(this.findCsvUrl(ConnectorUtils
+					.decodeLines(this.connectorClient.getBody(new URI(this.xetraUrl + XETRA_PATH)))));
 		} catch (URISyntaxException e) {
-			throw new RuntimeException(String.format("Page not found: %s", XETRA_URL), e);
+			throw new RuntimeException(String.format("Page not found: %s", this.xetraUrl + XETRA_PATH), e);
 		}
 	}
 	
@@ -48,36 +49,31 @@ public class XetraConnector {
 			try {
 				return this.loadSymbolsCsv(url);
 			} catch (URISyntaxException e) {
-				throw new RuntimeException("allTradableInstruments.csv not loaded.", e);
+				throw new RuntimeException(String.format("%s not loaded.", CSV_FILE), e);
 			}
 		});
 	}
 
 	private Flux<String> loadSymbolsCsv(String url) throws URISyntaxException {
-		return WebClient.create().mutate().exchangeStrategies(ConnectorUtils.createLargeResponseStrategy()).build().get()
-				.uri(new URI(url)).retrieve().toEntityList(String.class).flux()
-				.flatMap(line -> Flux.fromIterable(line.getBody()));
+		LOGGER.info("Loading: {}", url);
+		return ConnectorUtils.decodeLines(this.connectorClient.getBody(new URI(url)));
 	}
 	
-	private String findCsvUrl(String htmlPage) {
-		// find 'href="..."' in html page
-		Pattern pattern = Pattern.compile("(href=\\\"(.*?)\\\")");
-		Matcher matcher = pattern.matcher(htmlPage);
-		List<String> hrefs = new ArrayList<String>();
-		while(matcher.find()) {
-			hrefs.add(matcher.group(1));
-		}
-		//create csv url for the xetra stocks
-		Optional<String> csvUrlOpt = hrefs.stream().filter(href -> href.contains("allTradableInstruments.csv"))
-				.map(href -> this.createCsvUrl(href)).findFirst();
-		if(csvUrlOpt.isEmpty()) {
-			throw new RuntimeException("allTradableInstruments.csv not found.");
-		}
-		return csvUrlOpt.get();
+	private Mono<String> findCsvUrl(Flux<String> htmlLines) {
+		// the page is read until the line with the csv href, the rest is cancelled
+		return htmlLines.filter(line -> line.contains(CSV_FILE)).map(this::findCsvHref)
+				.filter(href -> !href.isEmpty()).next().map(href -> this.createCsvUrl(href))
+				.switchIfEmpty(Mono.error(() -> new RuntimeException(String.format("%s not found.", CSV_FILE))));
+	}
+
+	private String findCsvHref(String line) {
+		int fileIndex = line.indexOf(CSV_FILE);
+		int start = line.lastIndexOf(HREF, fileIndex);
+		int end = line.indexOf('"', fileIndex);
+		return start < 0 || end < 0 ? "" : line.substring(start + HREF.length(), end);
 	}
 	
 	private String createCsvUrl(String href) {
-		String url = "https://www.xetra.com" + href.replaceAll("href=\"", "").replaceAll("\"", "");
-		return url;
+		return this.xetraUrl + href;
 	}
 }
@@ -12,63 +12,71 @@
  */
 package ch.xxx.manager.connector;
 
-import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
-import java.util.List;
-
-import javax.annotation.PostConstruct;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.stereotype.Component;
-import org.springframework.web.reactive.function.client.WebClient;
-
-import com.fasterxml.jackson.databind.MappingIterator;
-import com.fasterxml.jackson.dataformat.csv.CsvMapper;
-import com.fasterxml.jackson.dataformat.csv.CsvSchema;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
 import ch.xxx.manager.dto.HkDailyQuoteImportDto;
+import ch.xxx.manager.entity.SymbolEntity.QuoteSource;
+import ch.xxx.manager.metrics.ImportMetrics;
+import ch.xxx.manager.metrics.ImportMetrics.ImportStage;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Component
 public class YahooConnector {
 	private static final Logger LOGGER = LoggerFactory.getLogger(YahooConnector.class);
-	private CsvMapper csvMapper = new CsvMapper();
-	
-	@PostConstruct
-	public void init() {
-		this.csvMapper.registerModule(new JavaTimeModule());
-	}
+	@Autowired
+	private ImportMetrics importMetrics;
+	@Autowired
+	private ConnectorClient connectorClient;
+	@Value("${connector.yahoo.url:https://query1.finance.yahoo.com}")
+	private String yahooUrl;
 
-	public Mono<List<HkDailyQuoteImportDto>> getTimeseriesDailyHistory(String symbol) {
+	public Flux<HkDailyQuoteImportDto> getTimeseriesDailyHistory(String symbol, LocalDate fromDay) {
 		try {
 			LocalDateTime toTime = LocalDateTime.now();
-			LocalDateTime fromTime = toTime.minusYears(10);
-			return WebClient.create().mutate().exchangeStrategies(ConnectorUtils.createLargeResponseStrategy()).build()
-					.get()
-					.uri(new URI(String.format(
-							"https://query1.finance.yahoo.com/v7/finance/download/%s?period1=%d&period2=%d&interval=1d&events=history",
-							symbol, fromTime.toEpochSecond(OffsetDateTime.now().getOffset()),
-							toTime.toEpochSecond(OffsetDateTime.now().getOffset()))))
-					.retrieve().toEntity(String.class).flatMap(response -> this.convert(response.getBody()));
+			LocalDateTime fromTime = fromDay.atStartOfDay();
+			final String source = QuoteSource.YAHOO.toString();
+			final String exchange = ConnectorUtils.findExchange(symbol);
+			Flux<DataBuffer> dataBuffers = this.connectorClient.getBody(new URI(String.format(
+					"%s/v7/finance/download/%s?period1=%d&period2=%d&interval=1d&events=history", this.yahooUrl,
+					symbol, fromTime.toEpochSecond(OffsetDateTime.now().getOffset()),
+					toTime.toEpochSecond(OffsetDateTime.now().getOffset()))));
+			return this.importMetrics.recordStage(
+					this.convert(ConnectorUtils.decodeLines(this.importMetrics.recordFetch(dataBuffers, source, exchange))),
+					ImportStage.DECODE, source, exchange);
 		} catch (URISyntaxException e) {
 			LOGGER.error("getTimeseriesHistory failed.", e);
 		}
-		return Mono.empty();
+		return Flux.empty();
 	}
 
-	private Mono<List<HkDailyQuoteImportDto>> convert(String linesStr) {
+	private Flux<HkDailyQuoteImportDto> convert(Flux<String> lines) {
+		return lines.filter(line -> !line.isBlank()).switchOnFirst((signal, myLines) -> {
+			if (!signal.hasValue()) {
+				return myLines.thenMany(Flux.empty());
+			}
+			YahooQuoteLineParser lineParser = new YahooQuoteLineParser(signal.get());
+			return myLines.skip(1).concatMap(line -> this.convert(lineParser, line));
+		});
+	}
+
+	private Mono<HkDailyQuoteImportDto> convert(YahooQuoteLineParser lineParser, String line) {
 		try {
-			MappingIterator<HkDailyQuoteImportDto> mappingIterator = csvMapper.readerFor(HkDailyQuoteImportDto.class)
-					.with(CsvSchema.emptySchema().withHeader()).readValues(linesStr);
-			return Mono.just(mappingIterator.readAll());
-		} catch (IOException e) {
-			LOGGER.error("Csv import failed.", e);
+			return Mono.just(lineParser.parse(line));
+		} catch (RuntimeException e) {
+			LOGGER.error("Csv line import failed: {}", line, e);
 		}
-		return Mono.just(List.of());
+		return Mono.empty();
 	}
 }
@@ -0,0 +1,92 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager.connector;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import ch.xxx.manager.dto.HkDailyQuoteImportDto;
+
+/**
+ * Reads the lines of a Yahoo history csv. The column positions are taken from
+ * the header line, the fields are parsed in place without splitting the line.
+ */
+public class YahooQuoteLineParser {
+	private final int columnCount;
+	private final int dateIndex;
+	private final int openIndex;
+	private final int highIndex;
+	private final int lowIndex;
+	private final int closeIndex;
+	private final int adjCloseIndex;
+	private final int volumeIndex;
+
+	public YahooQuoteLineParser(String headerLine) {
+		List<String> columns = Stream.of(headerLine.split(",")).map(String::trim).collect(Collectors.toList());
+		this.columnCount = columns.size();
+		this.dateIndex = columns.indexOf("Date");
+		this.openIndex = columns.indexOf("Open");
+		this.highIndex = columns.indexOf("High");
+		this.lowIndex = columns.indexOf("Low");
+		this.closeIndex = columns.indexOf("Close");
+		this.adjCloseIndex = columns.indexOf("Adj Close");
+		this.volumeIndex = columns.indexOf("Volume");
+		if (this.dateIndex < 0) {
+			throw new IllegalArgumentException("Date column missing in header: " + headerLine);
+		}
+	}
+
+	public HkDailyQuoteImportDto parse(String line) {
+		// start and end offsets of the fields
+		int[] bounds = new int[this.columnCount * 2];
+		int column = 0;
+		int start = 0;
+		for (int index = 0; index <= line.length() && column < this.columnCount; index++) {
+			if (index == line.length() || line.charAt(index) == ',') {
+				bounds[column * 2] = start;
+				bounds[column * 2 + 1] = index;
+				column++;
+				start = index + 1;
+			}
+		}
+		if (column <= this.dateIndex) {
+			throw new IllegalArgumentException("Date field missing in line: " + line);
+		}
+		HkDailyQuoteImportDto dto = new HkDailyQuoteImportDto();
+		dto.setDate(QuoteParser.parseDate(line, bounds[this.dateIndex * 2]));
+		dto.setOpen(this.isPresent(this.openIndex, column)
+				? QuoteParser.parseDecimal(line, bounds[this.openIndex * 2], bounds[this.openIndex * 2 + 1])
+				: null);
+		dto.setHigh(this.isPresent(this.highIndex, column)
+				? QuoteParser.parseDecimal(line, bounds[this.highIndex * 2], bounds[this.highIndex * 2 + 1])
+				: null);
+		dto.setLow(this.isPresent(this.lowIndex, column)
+				? QuoteParser.parseDecimal(line, bounds[this.lowIndex * 2], bounds[this.lowIndex * 2 + 1])
+				: null);
+		dto.setClose(this.isPresent(this.closeIndex, column)
+				? QuoteParser.parseDecimal(line, bounds[this.closeIndex * 2], bounds[this.closeIndex * 2 + 1])
+				: null);
+		dto.setAdjClose(this.isPresent(this.adjCloseIndex, column)
+				? QuoteParser.parseDecimal(line, bounds[this.adjCloseIndex * 2], bounds[this.adjCloseIndex * 2 + 1])
+				: null);
+		dto.setVolume(this.isPresent(this.volumeIndex, column)
+				? QuoteParser.parseLong(line, bounds[this.volumeIndex * 2], bounds[this.volumeIndex * 2 + 1])
+				: null);
+		return dto;
+	}
+
+	private boolean isPresent(int columnIndex, int parsedColumns) {
+		return columnIndex >= 0 && columnIndex < parsedColumns;
+	}
+}
@@ -13,12 +13,15 @@
 package ch.xxx.manager.contoller;
 
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -30,8 +33,16 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.util.UriUtils;
 
+import ch.xxx.manager.dto.IndexComparisonDto;
+import ch.xxx.manager.dto.IndexComparisonRowDto;
 import ch.xxx.manager.dto.PortfolioDto;
+import ch.xxx.manager.dto.PortfolioHorizonDto;
+import ch.xxx.manager.dto.PortfolioRiskDto;
+import ch.xxx.manager.dto.PortfolioValueDto;
+import ch.xxx.manager.service.ComparisonIndex;
+import ch.xxx.manager.service.PortfolioRiskService;
 import ch.xxx.manager.service.PortfolioService;
+import ch.xxx.manager.service.PortfolioToIndexService;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -42,6 +53,10 @@ public class PortfolioController {
 	
 	@Autowired
 	private PortfolioService portfolioService;
+	@Autowired
+	private PortfolioRiskService portfolioRiskService;
+	@Autowired
+	private PortfolioToIndexService portfolioToIndexService;
 
 	@GetMapping("/userid/{userId}")
 	public Flux<PortfolioDto> getPortfoliosByUserId(@PathVariable("userId") Long userId) {
@@ -53,6 +68,42 @@ public class PortfolioController {
 		return this.portfolioService.getPortfolioById(portfolioId);
 	}
 
+	@GetMapping("/id/{portfolioId}/horizons")
+	public Flux<PortfolioHorizonDto> getPortfolioValuesAtHorizons(@PathVariable("portfolioId") Long portfolioId,
+			@RequestParam(name = "horizons", defaultValue = "1m,6m,ytd,1y,3y,5y,10y") List<String> horizons) {
+		return this.portfolioService.getPortfolioValuesAtHorizons(portfolioId, horizons);
+	}
+
+	@GetMapping("/id/{portfolioId}/values/start/{start}/end/{end}")
+	public Flux<PortfolioValueDto> getPortfolioValues(@PathVariable("portfolioId") Long portfolioId,
+			@PathVariable("start") String isodateStart, @PathVariable("end") String isodateEnd) {
+		LocalDate start = LocalDate.parse(isodateStart, DateTimeFormatter.ISO_DATE);
+		LocalDate end = LocalDate.parse(isodateEnd, DateTimeFormatter.ISO_DATE);
+		return this.portfolioService.getPortfolioValues(portfolioId, start, end);
+	}
+
+	@GetMapping("/id/{portfolioId}/risk")
+	public Mono<PortfolioRiskDto> getPortfolioRisk(@PathVariable("portfolioId") Long portfolioId) {
+		return this.portfolioRiskService.getPortfolioRisk(portfolioId);
+	}
+
+	@GetMapping("/id/{portfolioId}/comparison")
+	public Mono<IndexComparisonDto> getIndexComparisons(@PathVariable("portfolioId") Long portfolioId,
+			@RequestParam(name = "indexes", required = false) List<ComparisonIndex> indexes,
+			@RequestParam(name = "symbols", required = false) List<String> symbols) {
+		return this.portfolioToIndexService.calculateIndexComparisons(portfolioId,
+				this.comparisonIndexes(indexes, symbols), symbols == null ? List.of() : symbols);
+	}
+
+	@GetMapping(value = "/id/{portfolioId}/comparison/stream", produces = { MediaType.APPLICATION_STREAM_JSON_VALUE,
+			MediaType.TEXT_EVENT_STREAM_VALUE })
+	public Flux<IndexComparisonRowDto> streamIndexComparisons(@PathVariable("portfolioId") Long portfolioId,
+			@RequestParam(name = "indexes", required = false) List<ComparisonIndex> indexes,
+			@RequestParam(name = "symbols", required = false) List<String> symbols) {
+		return this.portfolioToIndexService.streamIndexComparisons(portfolioId,
+				this.comparisonIndexes(indexes, symbols), symbols == null ? List.of() : symbols);
+	}
+
 	@PostMapping
 	public Mono<PortfolioDto> createPortfolio(@RequestBody PortfolioDto dto) {
 		return this.portfolioService.addPortfolio(dto);
@@ -76,6 +127,13 @@ public class PortfolioController {
 		return this.portfolioService.removeSymbolFromPortfolio(portfolioId, symbolId, this.isoDateTimeToLocalDateTime(removedAt));
 	}
 	
+	private List<ComparisonIndex> comparisonIndexes(List<ComparisonIndex> indexes, List<String> symbols) {
+		if ((indexes == null || indexes.isEmpty()) && (symbols == null || symbols.isEmpty())) {
+			return List.of(ComparisonIndex.values());
+		}
+		return indexes == null ? List.of() : indexes;
+	}
+
 	private LocalDateTime isoDateTimeToLocalDateTime(String isoString) {
 		if(isoString == null || isoString.trim().isBlank()) {
 			return LocalDateTime.now();
@@ -16,6 +16,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import ch.xxx.manager.connector.HkexConnector;
@@ -77,4 +78,10 @@ public class SymbolController {
 	public Flux<SymbolDto> getSymbolByName(@PathVariable("name") String name) {
 		return this.service.getSymbolByName(name);
 	}
+
+	@GetMapping("/search/{query}")
+	public Flux<SymbolDto> searchSymbols(@PathVariable("query") String query,
+			@RequestParam(name = "limit", defaultValue = "20") int limit) {
+		return this.service.searchSymbols(query, limit);
+	}
 }
@@ -0,0 +1,57 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager.dto;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+public class IndexColumnDto {
+	private String name;
+	private String symbol;
+	private List<BigDecimal> values = new ArrayList<>();
+
+	public IndexColumnDto() {
+	}
+
+	public IndexColumnDto(String name, String symbol, List<BigDecimal> values) {
+		super();
+		this.name = name;
+		this.symbol = symbol;
+		this.values = values;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public String getSymbol() {
+		return symbol;
+	}
+
+	public void setSymbol(String symbol) {
+		this.symbol = symbol;
+	}
+
+	public List<BigDecimal> getValues() {
+		return values;
+	}
+
+	public void setValues(List<BigDecimal> values) {
+		this.values = values;
+	}
+}
@@ -0,0 +1,57 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager.dto;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public class IndexComparisonDto {
+	private Long portfolioId;
+	private List<LocalDate> days = new ArrayList<>();
+	private List<IndexColumnDto> columns = new ArrayList<>();
+
+	public IndexComparisonDto() {
+	}
+
+	public IndexComparisonDto(Long portfolioId, List<LocalDate> days, List<IndexColumnDto> columns) {
+		super();
+		this.portfolioId = portfolioId;
+		this.days = days;
+		this.columns = columns;
+	}
+
+	public Long getPortfolioId() {
+		return portfolioId;
+	}
+
+	public void setPortfolioId(Long portfolioId) {
+		this.portfolioId = portfolioId;
+	}
+
+	public List<LocalDate> getDays() {
+		return days;
+	}
+
+	public void setDays(List<LocalDate> days) {
+		this.days = days;
+	}
+
+	public List<IndexColumnDto> getColumns() {
+		return columns;
+	}
+
+	public void setColumns(List<IndexColumnDto> columns) {
+		this.columns = columns;
+	}
+}
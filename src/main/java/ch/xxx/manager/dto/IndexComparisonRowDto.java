@@ -0,0 +1,48 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public class IndexComparisonRowDto {
+	private LocalDate localDay;
+	private List<BigDecimal> values = new ArrayList<>();
+
+	public IndexComparisonRowDto() {
+	}
+
+	public IndexComparisonRowDto(LocalDate localDay, List<BigDecimal> values) {
+		super();
+		this.localDay = localDay;
+		this.values = values;
+	}
+
+	public LocalDate getLocalDay() {
+		return localDay;
+	}
+
+	public void setLocalDay(LocalDate localDay) {
+		this.localDay = localDay;
+	}
+
+	public List<BigDecimal> getValues() {
+		return values;
+	}
+
+	public void setValues(List<BigDecimal> values) {
+		this.values = values;
+	}
+}
@@ -0,0 +1,73 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager.dto;
+
+public class IndexRiskDto {
+	private String name;
+	private String symbol;
+	private int returns;
+	private Double beta;
+	private Double correlation;
+
+	public IndexRiskDto() {
+	}
+
+	public IndexRiskDto(String name, String symbol, int returns, Double beta, Double correlation) {
+		super();
+		this.name = name;
+		this.symbol = symbol;
+		this.returns = returns;
+		this.beta = beta;
+		this.correlation = correlation;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public String getSymbol() {
+		return symbol;
+	}
+
+	public void setSymbol(String symbol) {
+		this.symbol = symbol;
+	}
+
+	public int getReturns() {
+		return returns;
+	}
+
+	public void setReturns(int returns) {
+		this.returns = returns;
+	}
+
+	public Double getBeta() {
+		return beta;
+	}
+
+	public void setBeta(Double beta) {
+		this.beta = beta;
+	}
+
+	public Double getCorrelation() {
+		return correlation;
+	}
+
+	public void setCorrelation(Double correlation) {
+		this.correlation = correlation;
+	}
+}
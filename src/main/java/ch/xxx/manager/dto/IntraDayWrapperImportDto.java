@@ -1,39 +0,0 @@
-/**
- *    Copyright 2019 Sven Loesekann
-   Licensed under the Apache License, Version 2.0 (the "License");
-   you may not use this file except in compliance with the License.
-   You may obtain a copy of the License at
-       http://www.apache.org/licenses/LICENSE-2.0
-   Unless required by applicable law or agreed to in writing, software
-   distributed under the License is distributed on an "AS IS" BASIS,
-   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
-   See the License for the specific language governing permissions and
-   limitations under the License.
- */
-package ch.xxx.manager.dto;
-
-import java.util.HashMap;
-import java.util.Map;
-
-import com.fasterxml.jackson.annotation.JsonProperty;
-
-public class IntraDayWrapperImportDto {
-	@JsonProperty("Meta Data")
-	private IntraDayMetaDataImportDto metaData;	
-	@JsonProperty("Time Series (5min)")
-	private Map<String,IntraDayQuoteImportDto> dailyQuotes = new HashMap<>();
-	
-	public Map<String, IntraDayQuoteImportDto> getDailyQuotes() {
-		return dailyQuotes;
-	}
-	public void setDailyQuotes(Map<String, IntraDayQuoteImportDto> dailyQuotes) {
-		this.dailyQuotes = dailyQuotes;
-	}
-	public IntraDayMetaDataImportDto getMetaData() {
-		return metaData;
-	}
-	public void setMetaData(IntraDayMetaDataImportDto metaData) {
-		this.metaData = metaData;
-	}
-	
-}
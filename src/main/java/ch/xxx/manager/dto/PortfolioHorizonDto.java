@@ -0,0 +1,66 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public class PortfolioHorizonDto {
+	private String horizon;
+	private LocalDate localDay;
+	private LocalDate valueDay;
+	private BigDecimal value;
+
+	public PortfolioHorizonDto() {
+	}
+
+	public PortfolioHorizonDto(String horizon, LocalDate localDay, LocalDate valueDay, BigDecimal value) {
+		super();
+		this.horizon = horizon;
+		this.localDay = localDay;
+		this.valueDay = valueDay;
+		this.value = value;
+	}
+
+	public String getHorizon() {
+		return horizon;
+	}
+
+	public void setHorizon(String horizon) {
+		this.horizon = horizon;
+	}
+
+	public LocalDate getLocalDay() {
+		return localDay;
+	}
+
+	public void setLocalDay(LocalDate localDay) {
+		this.localDay = localDay;
+	}
+
+	public LocalDate getValueDay() {
+		return valueDay;
+	}
+
+	public void setValueDay(LocalDate valueDay) {
+		this.valueDay = valueDay;
+	}
+
+	public BigDecimal getValue() {
+		return value;
+	}
+
+	public void setValue(BigDecimal value) {
+		this.value = value;
+	}
+}
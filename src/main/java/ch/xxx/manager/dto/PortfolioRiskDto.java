@@ -0,0 +1,129 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager.dto;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PortfolioRiskDto {
+	private Long portfolioId;
+	private LocalDate fromDay;
+	private LocalDate toDay;
+	private int returns;
+	private Double volatility;
+	private Double sharpeRatio;
+	private Double maxDrawdown;
+	private LocalDate drawdownPeakDay;
+	private LocalDate drawdownTroughDay;
+	private List<IndexRiskDto> indexes = new ArrayList<>();
+
+	public PortfolioRiskDto() {
+	}
+
+	public PortfolioRiskDto(Long portfolioId, LocalDate fromDay, LocalDate toDay, int returns, Double volatility,
+			Double sharpeRatio, Double maxDrawdown, LocalDate drawdownPeakDay, LocalDate drawdownTroughDay,
+			List<IndexRiskDto> indexes) {
+		super();
+		this.portfolioId = portfolioId;
+		this.fromDay = fromDay;
+		this.toDay = toDay;
+		this.returns = returns;
+		this.volatility = volatility;
+		this.sharpeRatio = sharpeRatio;
+		this.maxDrawdown = maxDrawdown;
+		this.drawdownPeakDay = drawdownPeakDay;
+		this.drawdownTroughDay = drawdownTroughDay;
+		this.indexes = indexes;
+	}
+
+	public Long getPortfolioId() {
+		return portfolioId;
+	}
+
+	public void setPortfolioId(Long portfolioId) {
+		this.portfolioId = portfolioId;
+	}
+
+	public LocalDate getFromDay() {
+		return fromDay;
+	}
+
+	public void setFromDay(LocalDate fromDay) {
+		this.fromDay = fromDay;
+	}
+
+	public LocalDate getToDay() {
+		return toDay;
+	}
+
+	public void setToDay(LocalDate toDay) {
+		this.toDay = toDay;
+	}
+
+	public int getReturns() {
+		return returns;
+	}
+
+	public void setReturns(int returns) {
+		this.returns = returns;
+	}
+
+	public Double getVolatility() {
+		return volatility;
+	}
+
+	public void setVolatility(Double volatility) {
+		this.volatility = volatility;
+	}
+
+	public Double getSharpeRatio() {
+		return sharpeRatio;
+	}
+
+	public void setSharpeRatio(Double sharpeRatio) {
+		this.sharpeRatio = sharpeRatio;
+	}
+
+	public Double getMaxDrawdown() {
+		return maxDrawdown;
+	}
+
+	public void setMaxDrawdown(Double maxDrawdown) {
+		this.maxDrawdown = maxDrawdown;
+	}
+
+	public LocalDate getDrawdownPeakDay() {
+		return drawdownPeakDay;
+	}
+
+	public void setDrawdownPeakDay(LocalDate drawdownPeakDay) {
+		this.drawdownPeakDay = drawdownPeakDay;
+	}
+
+	public LocalDate getDrawdownTroughDay() {
+		return drawdownTroughDay;
+	}
+
+	public void setDrawdownTroughDay(LocalDate drawdownTroughDay) {
+		this.drawdownTroughDay = drawdownTroughDay;
+	}
+
+	public List<IndexRiskDto> getIndexes() {
+		return indexes;
+	}
+
+	public void setIndexes(List<IndexRiskDto> indexes) {
+		this.indexes = indexes;
+	}
+}
@@ -0,0 +1,46 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public class PortfolioValueDto {
+	private LocalDate localDay;
+	private BigDecimal value;
+
+	public PortfolioValueDto() {
+	}
+
+	public PortfolioValueDto(LocalDate localDay, BigDecimal value) {
+		super();
+		this.localDay = localDay;
+		this.value = value;
+	}
+
+	public LocalDate getLocalDay() {
+		return localDay;
+	}
+
+	public void setLocalDay(LocalDate localDay) {
+		this.localDay = localDay;
+	}
+
+	public BigDecimal getValue() {
+		return value;
+	}
+
+	public void setValue(BigDecimal value) {
+		this.value = value;
+	}
+}
@@ -0,0 +1,131 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager.entity;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+@Table("import_job")
+public class ImportJobEntity {
+	public enum JobState { QUEUED, RUNNING, DONE, FAILED }
+
+	@Id
+	private Long id;
+	private Long symbolId;
+	private String symbol;
+	private String source;
+	private Integer priority;
+	private String state;
+	private Integer attempts;
+	private LocalDate runDay;
+	private LocalDateTime updatedAt;
+
+	public ImportJobEntity() {
+	}
+
+	public ImportJobEntity(Long id, Long symbolId, String symbol, String source, Integer priority, JobState state,
+			LocalDate runDay) {
+		super();
+		this.id = id;
+		this.symbolId = symbolId;
+		this.symbol = symbol;
+		this.source = source;
+		this.priority = priority;
+		this.state = state.toString();
+		this.attempts = 0;
+		this.runDay = runDay;
+		this.updatedAt = LocalDateTime.now();
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public Long getSymbolId() {
+		return symbolId;
+	}
+
+	public void setSymbolId(Long symbolId) {
+		this.symbolId = symbolId;
+	}
+
+	public String getSymbol() {
+		return symbol;
+	}
+
+	public void setSymbol(String symbol) {
+		this.symbol = symbol;
+	}
+
+	public String getSource() {
+		return source;
+	}
+
+	public void setSource(String source) {
+		this.source = source;
+	}
+
+	public Integer getPriority() {
+		return priority;
+	}
+
+	public void setPriority(Integer priority) {
+		this.priority = priority;
+	}
+
+	public String getState() {
+		return state;
+	}
+
+	public void setState(String state) {
+		this.state = state;
+	}
+
+	public Integer getAttempts() {
+		return attempts;
+	}
+
+	public void setAttempts(Integer attempts) {
+		this.attempts = attempts;
+	}
+
+	public LocalDate getRunDay() {
+		return runDay;
+	}
+
+	public void setRunDay(LocalDate runDay) {
+		this.runDay = runDay;
+	}
+
+	public LocalDateTime getUpdatedAt() {
+		return updatedAt;
+	}
+
+	public void setUpdatedAt(LocalDateTime updatedAt) {
+		this.updatedAt = updatedAt;
+	}
+
+	@Override
+	public String toString() {
+		return "ImportJobEntity [id=" + id + ", symbolId=" + symbolId + ", symbol=" + symbol + ", source=" + source
+				+ ", priority=" + priority + ", state=" + state + ", attempts=" + attempts + ", runDay=" + runDay
+				+ ", updatedAt=" + updatedAt + "]";
+	}
+}
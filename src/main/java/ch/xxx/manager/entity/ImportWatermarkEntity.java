@@ -0,0 +1,87 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager.entity;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+@Table("import_watermark")
+public class ImportWatermarkEntity {
+	@Id
+	private Long id;
+	private Long symbolId;
+	private String source;
+	private LocalDate lastDay;
+	private LocalDateTime lastRun;
+
+	public ImportWatermarkEntity() {
+	}
+
+	public ImportWatermarkEntity(Long id, Long symbolId, String source, LocalDate lastDay, LocalDateTime lastRun) {
+		super();
+		this.id = id;
+		this.symbolId = symbolId;
+		this.source = source;
+		this.lastDay = lastDay;
+		this.lastRun = lastRun;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public Long getSymbolId() {
+		return symbolId;
+	}
+
+	public void setSymbolId(Long symbolId) {
+		this.symbolId = symbolId;
+	}
+
+	public String getSource() {
+		return source;
+	}
+
+	public void setSource(String source) {
+		this.source = source;
+	}
+
+	public LocalDate getLastDay() {
+		return lastDay;
+	}
+
+	public void setLastDay(LocalDate lastDay) {
+		this.lastDay = lastDay;
+	}
+
+	public LocalDateTime getLastRun() {
+		return lastRun;
+	}
+
+	public void setLastRun(LocalDateTime lastRun) {
+		this.lastRun = lastRun;
+	}
+
+	@Override
+	public String toString() {
+		return "ImportWatermarkEntity [id=" + id + ", symbolId=" + symbolId + ", source=" + source + ", lastDay="
+				+ lastDay + ", lastRun=" + lastRun + "]";
+	}
+}
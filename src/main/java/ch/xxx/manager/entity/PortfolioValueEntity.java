@@ -0,0 +1,63 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * The value in euro of a portfolio at the close of a day, the key is
+ * (portfolio_id, local_day).
+ */
+@Table("portfolio_value")
+public class PortfolioValueEntity {
+	private Long portfolioId;
+	private LocalDate localDay;
+	private BigDecimal close;
+
+	public PortfolioValueEntity() {
+	}
+
+	public PortfolioValueEntity(Long portfolioId, LocalDate localDay, BigDecimal close) {
+		super();
+		this.portfolioId = portfolioId;
+		this.localDay = localDay;
+		this.close = close;
+	}
+
+	public Long getPortfolioId() {
+		return portfolioId;
+	}
+
+	public void setPortfolioId(Long portfolioId) {
+		this.portfolioId = portfolioId;
+	}
+
+	public LocalDate getLocalDay() {
+		return localDay;
+	}
+
+	public void setLocalDay(LocalDate localDay) {
+		this.localDay = localDay;
+	}
+
+	public BigDecimal getClose() {
+		return close;
+	}
+
+	public void setClose(BigDecimal close) {
+		this.close = close;
+	}
+}
@@ -0,0 +1,121 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager.metrics;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.stereotype.Component;
+
+import ch.xxx.manager.dto.ImportRunDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Meters of the import pipelines. The stages are streamed, a stage timer
+ * measures from the subscription until the stage has completed, so the fetch
+ * time is included in the decode time and so on.
+ */
+@Component
+public class ImportMetrics {
+	public enum ImportStage { FETCH, DECODE, CONVERT, PERSIST }
+	
+	private static final String STAGE_DURATION = "import.stage.duration";
+	private static final String STAGE_ROWS = "import.stage.rows";
+	private static final String STAGE_FAILURES = "import.stage.failures";
+	private static final String BYTES_RECEIVED = "import.bytes.received";
+	@Autowired
+	private MeterRegistry meterRegistry;
+	@Value("${import.runs.max:50}")
+	private int maxImportRuns;
+	private final Deque<ImportRunDto> importRuns = new ConcurrentLinkedDeque<>();
+
+	public <T> Flux<T> recordStage(Flux<T> stage, ImportStage importStage, String source, String exchange) {
+		Tags tags = this.createTags(importStage, source, exchange);
+		Counter rowCounter = this.meterRegistry.counter(STAGE_ROWS, tags);
+		return this.recordDuration(stage.doOnNext(value -> rowCounter.increment()), tags);
+	}
+
+	public Mono<Long> recordPersist(Mono<Long> persist, String source, String exchange) {
+		Tags tags = this.createTags(ImportStage.PERSIST, source, exchange);
+		Counter rowCounter = this.meterRegistry.counter(STAGE_ROWS, tags);
+		return this.recordDuration(persist.flux().doOnNext(rows -> rowCounter.increment(rows)), tags).next();
+	}
+
+	public Flux<DataBuffer> recordFetch(Flux<DataBuffer> dataBuffers, String source, String exchange) {
+		Tags tags = this.createTags(ImportStage.FETCH, source, exchange);
+		DistributionSummary bytesReceived = DistributionSummary.builder(BYTES_RECEIVED).baseUnit("bytes")
+				.tags(tags).register(this.meterRegistry);
+		return this.recordDuration(
+				dataBuffers.doOnNext(dataBuffer -> bytesReceived.record(dataBuffer.readableByteCount())), tags);
+	}
+
+	/**
+	 * Records the run in the list of the last import runs.
+	 */
+	public Mono<Long> recordRun(Mono<Long> run, String name, String source, String exchange) {
+		return Mono.defer(() -> {
+			final LocalDateTime start = LocalDateTime.now();
+			final long startNanos = System.nanoTime();
+			final AtomicLong rows = new AtomicLong();
+			return run.doOnNext(rows::set).doOnError(e -> this.addImportRun(new ImportRunDto(name, source, exchange,
+					start, this.millisSince(startNanos), rows.get(), "FAILED", e.getMessage())))
+					.doOnSuccess(value -> this.addImportRun(new ImportRunDto(name, source, exchange, start,
+							this.millisSince(startNanos), rows.get(), "DONE", null)));
+		});
+	}
+
+	public List<ImportRunDto> getImportRuns() {
+		return new ArrayList<>(this.importRuns);
+	}
+
+	private void addImportRun(ImportRunDto importRun) {
+		this.importRuns.addFirst(importRun);
+		while (this.importRuns.size() > this.maxImportRuns) {
+			this.importRuns.pollLast();
+		}
+	}
+
+	private <T> Flux<T> recordDuration(Flux<T> stage, Tags tags) {
+		Timer timer = Timer.builder(STAGE_DURATION).tags(tags).publishPercentileHistogram()
+				.register(this.meterRegistry);
+		Counter failureCounter = this.meterRegistry.counter(STAGE_FAILURES, tags);
+		return Flux.defer(() -> {
+			final long startNanos = System.nanoTime();
+			return stage.doOnError(e -> failureCounter.increment())
+					.doFinally(signal -> timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS));
+		});
+	}
+
+	private Tags createTags(ImportStage importStage, String source, String exchange) {
+		return Tags.of("stage", importStage.name().toLowerCase(), "source", source == null ? "unknown" : source,
+				"exchange", exchange == null ? "unknown" : exchange);
+	}
+
+	private long millisSince(long startNanos) {
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+	}
+}
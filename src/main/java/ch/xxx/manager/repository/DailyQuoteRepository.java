@@ -20,15 +20,25 @@ import org.springframework.stereotype.Repository;
 
 import ch.xxx.manager.entity.DailyQuoteEntity;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @Repository
 public interface DailyQuoteRepository extends R2dbcRepository<DailyQuoteEntity, Long> {
 	@Query("select * from daily_quote where symbol = :symbol order by local_day asc")
 	Flux<DailyQuoteEntity> findBySymbol(String symbol);
 	
+	@Query("select dq.* from daily_quote dq, symbol s where dq.symbol_id = s.id and lower(s.symbol) = :symbol order by dq.local_day asc")
+	Flux<DailyQuoteEntity> findByLowerSymbol(String symbol);
+	
 	@Query("select * from daily_quote where symbol_id = :symbolId order by local_day asc")
 	Flux<DailyQuoteEntity> findBySymbolId(Long symbolId);
 	
+	@Query("select * from daily_quote where symbol_id = :symbolId and local_day >= :localDay order by local_day asc")
+	Flux<DailyQuoteEntity> findBySymbolIdFromDay(Long symbolId, LocalDate localDay);
+	
+	@Query("select * from daily_quote where symbol_id = :symbolId order by local_day desc limit 1")
+	Mono<DailyQuoteEntity> findNewestBySymbolId(Long symbolId);
+	
 	@Query("select * from daily_quote where symbol = :symbol and local_day between :start and :end order by local_day asc")
 	Flux<DailyQuoteEntity> findBySymbolAndDayBetween(String symbol, LocalDate start, LocalDate end);
 }
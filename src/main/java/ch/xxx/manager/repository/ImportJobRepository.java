@@ -0,0 +1,40 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager.repository;
+
+import java.time.LocalDate;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+
+import ch.xxx.manager.entity.ImportJobEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface ImportJobRepository extends R2dbcRepository<ImportJobEntity, Long> {
+	@Query("select * from import_job where run_day = :runDay limit 1")
+	Mono<ImportJobEntity> findFirstByRunDay(LocalDate runDay);
+	
+	@Query("select * from import_job where run_day = :runDay and state <> 'DONE' and attempts < :maxAttempts order by priority, id")
+	Flux<ImportJobEntity> findOpenByRunDay(LocalDate runDay, Integer maxAttempts);
+	
+	@Query("select * from import_job where state in ('QUEUED', 'RUNNING') or (state = 'FAILED' and attempts < :maxAttempts) order by run_day desc limit 1")
+	Mono<ImportJobEntity> findNewestUnfinished(Integer maxAttempts);
+	
+	@Modifying
+	@Query("delete from import_job where run_day < :runDay")
+	Mono<Integer> deleteByRunDayBefore(LocalDate runDay);
+}
@@ -14,11 +14,13 @@ package ch.xxx.manager.repository;
 
 import java.time.LocalDateTime;
 
+import org.springframework.data.r2dbc.repository.Modifying;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 
 import ch.xxx.manager.entity.IntraDayQuoteEntity;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 public interface IntraDayQuoteRepository extends R2dbcRepository<IntraDayQuoteEntity, Long> {
 	@Query("select * from intra_day_quote where symbol = :symbol order by local_date_time asc")
@@ -27,4 +29,11 @@ public interface IntraDayQuoteRepository extends R2dbcRepository<IntraDayQuoteEn
 	Flux<IntraDayQuoteEntity> findBySymbolId(Long symbolId);
 	@Query("select * from intra_day_quote where symbol = :symbol and local_date_time between :start and :end order by local_date_time asc")
 	Flux<IntraDayQuoteEntity> findBySymbolAndLocaldatetimeBetween(String symbol, LocalDateTime start, LocalDateTime end);
+	@Query("select * from intra_day_quote where symbol_id = :symbolId order by local_date_time desc limit 1")
+	Mono<IntraDayQuoteEntity> findNewestBySymbolId(Long symbolId);
+	@Query("select * from intra_day_quote q where q.local_date_time = (select max(n.local_date_time) from intra_day_quote n where n.symbol_id = q.symbol_id)")
+	Flux<IntraDayQuoteEntity> findNewestPerSymbol();
+	@Modifying
+	@Query("delete from intra_day_quote where symbol_id = :symbolId and local_date_time < :before")
+	Mono<Integer> deleteBySymbolIdAndLocaldatetimeBefore(Long symbolId, LocalDateTime before);
 }
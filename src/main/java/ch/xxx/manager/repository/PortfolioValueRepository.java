@@ -0,0 +1,37 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager.repository;
+
+import java.time.LocalDate;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+
+import ch.xxx.manager.entity.PortfolioValueEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface PortfolioValueRepository extends R2dbcRepository<PortfolioValueEntity, Long> {
+	@Query("select * from portfolio_value where portfolio_id = :portfolioId order by local_day asc")
+	Flux<PortfolioValueEntity> findByPortfolioId(Long portfolioId);
+	
+	@Query("select * from portfolio_value where portfolio_id = :portfolioId and local_day between :start and :end order by local_day asc")
+	Flux<PortfolioValueEntity> findByPortfolioIdAndDayBetween(Long portfolioId, LocalDate start, LocalDate end);
+	
+	@Modifying
+	@Query("delete from portfolio_value where portfolio_id = :portfolioId and local_day >= :localDay")
+	Mono<Integer> deleteByPortfolioIdFromDay(Long portfolioId, LocalDate localDay);
+}
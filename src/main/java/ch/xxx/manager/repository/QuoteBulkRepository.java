@@ -0,0 +1,178 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import org.springframework.data.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.springframework.stereotype.Repository;
+
+import ch.xxx.manager.entity.DailyQuoteEntity;
+import ch.xxx.manager.entity.IntraDayQuoteEntity;
+import ch.xxx.manager.entity.PortfolioValueEntity;
+import io.r2dbc.spi.ConnectionFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+public class QuoteBulkRepository {
+	private static final Logger LOGGER = LoggerFactory.getLogger(QuoteBulkRepository.class);
+	private static final List<String> DAILY_QUOTE_COLUMNS = List.of("symbol", "open", "high", "low", "close",
+			"volume", "local_day", "symbol_id", "currency_id");
+	private static final List<Class<?>> DAILY_QUOTE_TYPES = List.of(String.class, BigDecimal.class, BigDecimal.class,
+			BigDecimal.class, BigDecimal.class, Long.class, LocalDate.class, Long.class, Long.class);
+	private static final List<String> INTRA_DAY_QUOTE_COLUMNS = List.of("symbol", "open", "high", "low", "close",
+			"volume", "local_date_time", "symbol_id");
+	private static final List<String> DAILY_QUOTE_KEY = List.of("symbol_id", "local_day");
+	private static final List<String> PORTFOLIO_VALUE_COLUMNS = List.of("portfolio_id", "local_day", "close");
+	private static final List<Class<?>> PORTFOLIO_VALUE_TYPES = List.of(Long.class, LocalDate.class,
+			BigDecimal.class);
+	private static final List<String> PORTFOLIO_VALUE_KEY = List.of("portfolio_id", "local_day");
+	private static final List<Class<?>> INTRA_DAY_QUOTE_TYPES = List.of(String.class, BigDecimal.class,
+			BigDecimal.class, BigDecimal.class, BigDecimal.class, Long.class, LocalDateTime.class, Long.class);
+	@Autowired
+	private DatabaseClient client;
+	@Autowired
+	private ConnectionFactory connectionFactory;
+	@Value("${quote.import.batch-size:500}")
+	private int batchSize;
+	private boolean postgres;
+
+	@PostConstruct
+	public void init() {
+		this.postgres = this.connectionFactory.getMetadata().getName().toLowerCase().contains("postgres");
+	}
+
+	/**
+	 * Inserts new quotes and updates the quotes of existing (symbol_id, local_day)
+	 * keys, a retried import does not create duplicates.
+	 */
+	public Mono<Long> upsertDailyQuotes(Flux<DailyQuoteEntity> entities) {
+		return this.insertAll("daily_quote", DAILY_QUOTE_COLUMNS, DAILY_QUOTE_TYPES, entities,
+				batch -> this.distinctByKey(batch, entity -> List.of(entity.getSymbolId(), entity.getLocalDay())),
+				this::toDailyQuoteValues,
+				rows -> this.createUpsertStatement("daily_quote", DAILY_QUOTE_COLUMNS, DAILY_QUOTE_KEY, rows),
+				"upserted");
+	}
+
+	public Mono<Long> upsertPortfolioValues(Flux<PortfolioValueEntity> entities) {
+		return this.insertAll("portfolio_value", PORTFOLIO_VALUE_COLUMNS, PORTFOLIO_VALUE_TYPES, entities,
+				batch -> this.distinctByKey(batch, entity -> List.of(entity.getPortfolioId(), entity.getLocalDay())),
+				entity -> new Object[] { entity.getPortfolioId(), entity.getLocalDay(), entity.getClose() },
+				rows -> this.createUpsertStatement("portfolio_value", PORTFOLIO_VALUE_COLUMNS, PORTFOLIO_VALUE_KEY,
+						rows),
+				"upserted");
+	}
+
+	public Mono<Long> insertIntraDayQuotes(Flux<IntraDayQuoteEntity> entities) {
+		return this.insertAll("intra_day_quote", INTRA_DAY_QUOTE_COLUMNS, INTRA_DAY_QUOTE_TYPES, entities,
+				Function.identity(), entity -> new Object[] { entity.getSymbol(), entity.getOpen(), entity.getHigh(), entity.getLow(),
+						entity.getClose(), entity.getVolume(), entity.getLocalDateTime(), entity.getSymbolId() },
+				rows -> this.createInsertStatement("intra_day_quote", INTRA_DAY_QUOTE_COLUMNS, rows), "inserted");
+	}
+
+	private Object[] toDailyQuoteValues(DailyQuoteEntity entity) {
+		return new Object[] { entity.getSymbol(), entity.getOpen(), entity.getHigh(), entity.getLow(),
+				entity.getClose(), entity.getVolume(), entity.getLocalDay(), entity.getSymbolId(),
+				entity.getCurrencyId() };
+	}
+
+	private <T> List<T> distinctByKey(List<T> batch, Function<T, Object> keyExtractor) {
+		// the last quote of a key wins, one statement must not change a row twice
+		Map<Object, T> entitiesByKey = new LinkedHashMap<>();
+		batch.forEach(entity -> entitiesByKey.put(keyExtractor.apply(entity), entity));
+		return entitiesByKey.size() == batch.size() ? batch : new ArrayList<>(entitiesByKey.values());
+	}
+
+	private <T> Mono<Long> insertAll(String table, List<String> columns, List<Class<?>> columnTypes,
+			Flux<T> entities, Function<List<T>, List<T>> batchFilter, Function<T, Object[]> toValues,
+			Function<Integer, String> statementFactory, String operation) {
+		return Mono.defer(() -> {
+			final long start = System.nanoTime();
+			return entities.buffer(this.batchSize).map(batchFilter)
+					.concatMap(batch -> this.insertBatch(columns, columnTypes, batch, toValues,
+							statementFactory.apply(batch.size())))
+					.reduce(0L, Long::sum).doOnNext(rows -> this.logThroughput(table, operation, rows, start));
+		});
+	}
+
+	private <T> Mono<Long> insertBatch(List<String> columns, List<Class<?>> columnTypes, List<T> batch,
+			Function<T, Object[]> toValues, String statement) {
+		GenericExecuteSpec executeSpec = this.client.execute(statement);
+		for (int row = 0; row < batch.size(); row++) {
+			Object[] values = toValues.apply(batch.get(row));
+			for (int column = 0; column < columns.size(); column++) {
+				String name = this.parameterName(row, column);
+				executeSpec = values[column] == null ? executeSpec.bindNull(name, columnTypes.get(column))
+						: executeSpec.bind(name, values[column]);
+			}
+		}
+		return executeSpec.fetch().rowsUpdated().map(Integer::longValue);
+	}
+
+	private String createInsertStatement(String table, List<String> columns, int rows) {
+		return this.appendValues(new StringBuilder("insert into ").append(table).append(" (")
+				.append(String.join(", ", columns)).append(")"), columns, rows).toString();
+	}
+
+	private String createUpsertStatement(String table, List<String> columns, List<String> keyColumns, int rows) {
+		if (this.postgres) {
+			return new StringBuilder(this.createInsertStatement(table, columns, rows)).append(" on conflict (")
+					.append(String.join(", ", keyColumns)).append(") do update set ")
+					.append(columns.stream().filter(column -> !keyColumns.contains(column))
+							.map(column -> column + " = excluded." + column).collect(Collectors.joining(", ")))
+					.toString();
+		}
+		return this.appendValues(new StringBuilder("merge into ").append(table).append(" (")
+				.append(String.join(", ", columns)).append(") key (").append(String.join(", ", keyColumns))
+				.append(")"), columns, rows).toString();
+	}
+
+	private StringBuilder appendValues(StringBuilder sb, List<String> columns, int rows) {
+		sb.append(" values ");
+		for (int row = 0; row < rows; row++) {
+			sb.append(row == 0 ? "(" : ", (");
+			for (int column = 0; column < columns.size(); column++) {
+				sb.append(column == 0 ? ":" : ", :").append(this.parameterName(row, column));
+			}
+			sb.append(")");
+		}
+		return sb;
+	}
+
+	private String parameterName(int row, int column) {
+		return "p" + row + "_" + column;
+	}
+
+	private void logThroughput(String table, String operation, long rows, long start) {
+		// upserted rows are new or updated rows, a re-import updates its rows
+		long millis = Math.max(1L, (System.nanoTime() - start) / 1_000_000L);
+		LOGGER.info("{} rows {} into {} in {}ms ({} rows/sec)", rows, operation, table, millis,
+				rows * 1000L / millis);
+	}
+}
@@ -0,0 +1,240 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import ch.xxx.manager.entity.CurrencyEntity;
+import ch.xxx.manager.repository.CurrencyRepository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Holds the close rates of the currency table as sorted primitive arrays per
+ * currency pair. The arrays are replaced copy on write, lookups need no locks.
+ * The fx import adds its rates directly, rates changed by other paths are read
+ * by the scheduled reload of the whole table.
+ */
+@Component
+public class FxRateIndex {
+	private static final Logger LOGGER = LoggerFactory.getLogger(FxRateIndex.class);
+	private static final Duration CACHE_FOREVER = Duration.ofMillis(Long.MAX_VALUE);
+	public static final int RATE_SCALE = 8;
+	public static final long RATE_ONE = 100_000_000L;
+	@Autowired
+	private CurrencyRepository currencyRepository;
+	private volatile Map<String, FxSeries> seriesByPair = Map.of();
+	private Mono<FxRateIndex> loadedIndex;
+
+	@PostConstruct
+	public void init() {
+		this.loadedIndex = this.currencyRepository.findAll().collectList().map(entities -> {
+			this.addAll(entities);
+			LOGGER.info("{} currency rates indexed.", entities.size());
+			return this;
+		}).doOnError(e -> LOGGER.warn("Currency rates not indexed.", e))
+				// a failed load is not cached, the next caller reads the rates again
+				.cache(index -> CACHE_FOREVER, e -> Duration.ZERO, () -> CACHE_FOREVER);
+	}
+
+	public Mono<FxRateIndex> getIndex() {
+		return this.loadedIndex;
+	}
+
+	@Scheduled(cron = "${currency.rates.reload-cron:0 45 * * * ?}")
+	public void scheduledReload() {
+		this.reload().subscribe(count -> LOGGER.info("{} currency rates reloaded.", count),
+				e -> LOGGER.warn("Currency rates not reloaded.", e));
+	}
+
+	/**
+	 * Replaces the indexed rates with the rates of the currency table.
+	 */
+	public Mono<Integer> reload() {
+		return this.currencyRepository.findAll().collectList().map(entities -> {
+			this.replaceAll(entities);
+			return entities.size();
+		});
+	}
+
+	/**
+	 * Divides a fixed point value by an unscaled rate, rounded half up like
+	 * BigDecimal.divide(rate, 0, HALF_UP) without a BigDecimal per value.
+	 */
+	public static long toEuro(long unscaledValue, long unscaledRate) {
+		if (unscaledRate == RATE_ONE) {
+			return unscaledValue;
+		}
+		long dividend = Math.multiplyExact(unscaledValue, RATE_ONE);
+		long quotient = dividend / unscaledRate;
+		long remainder = Math.abs(dividend % unscaledRate);
+		return remainder >= unscaledRate - remainder ? quotient + Long.signum(dividend) : quotient;
+	}
+
+	public synchronized void addAll(Collection<CurrencyEntity> entities) {
+		this.seriesByPair = this.merge(new HashMap<>(this.seriesByPair), entities);
+	}
+
+	private synchronized void replaceAll(Collection<CurrencyEntity> entities) {
+		this.seriesByPair = this.merge(new HashMap<>(), entities);
+	}
+
+	private Map<String, FxSeries> merge(Map<String, FxSeries> newSeriesByPair, Collection<CurrencyEntity> entities) {
+		entities.stream().filter(entity -> entity.getLocalDay() != null && entity.getClose() != null)
+				.collect(Collectors.groupingBy(entity -> this.pairKey(entity.getFrom_curr(), entity.getTo_curr())))
+				.forEach((pairKey, pairEntities) -> newSeriesByPair.put(pairKey,
+						FxSeries.merge(newSeriesByPair.get(pairKey), pairEntities)));
+		return newSeriesByPair;
+	}
+
+	/**
+	 * Returns the rates of one currency pair, callers that convert many days of
+	 * the same pair look the series up once.
+	 */
+	public FxSeries findSeries(String fromCurr, String toCurr) {
+		return this.seriesByPair.getOrDefault(this.pairKey(fromCurr, toCurr), FxSeries.EMPTY);
+	}
+
+	public boolean hasRate(String fromCurr, String toCurr, LocalDate day) {
+		return this.findSeries(fromCurr, toCurr).hasRate(day);
+	}
+
+	public Optional<BigDecimal> findRate(String fromCurr, String toCurr, LocalDate day) {
+		if (fromCurr.equalsIgnoreCase(toCurr)) {
+			return Optional.of(BigDecimal.ONE);
+		}
+		return this.findSeries(fromCurr, toCurr).findRate(day);
+	}
+
+	public Optional<BigDecimal> findRateAsOf(String fromCurr, String toCurr, LocalDate day) {
+		if (fromCurr.equalsIgnoreCase(toCurr)) {
+			return Optional.of(BigDecimal.ONE);
+		}
+		return this.findSeries(fromCurr, toCurr).findRateAsOf(day);
+	}
+
+	public Optional<Long> findCurrencyId(String fromCurr, String toCurr, LocalDate day) {
+		return this.findSeries(fromCurr, toCurr).findCurrencyId(day);
+	}
+
+	private String pairKey(String fromCurr, String toCurr) {
+		return (fromCurr == null ? "" : fromCurr.toUpperCase()) + "/" + (toCurr == null ? "" : toCurr.toUpperCase());
+	}
+
+	public static class FxSeries {
+		private static final FxSeries EMPTY = new FxSeries(new int[0], new long[0], new long[0]);
+		private final int[] epochDays;
+		private final long[] unscaledRates;
+		private final long[] ids;
+
+		private FxSeries(int[] epochDays, long[] unscaledRates, long[] ids) {
+			this.epochDays = epochDays;
+			this.unscaledRates = unscaledRates;
+			this.ids = ids;
+		}
+
+		private static FxSeries merge(FxSeries oldSeries, List<CurrencyEntity> entities) {
+			entities.sort(Comparator.comparing(CurrencyEntity::getLocalDay));
+			int oldSize = oldSeries == null ? 0 : oldSeries.epochDays.length;
+			int[] epochDays = new int[oldSize + entities.size()];
+			long[] unscaledRates = new long[epochDays.length];
+			long[] ids = new long[epochDays.length];
+			int oldIndex = 0;
+			int newIndex = 0;
+			int size = 0;
+			while (oldIndex < oldSize || newIndex < entities.size()) {
+				int oldDay = oldIndex < oldSize ? oldSeries.epochDays[oldIndex] : Integer.MAX_VALUE;
+				int newDay = newIndex < entities.size() ? (int) entities.get(newIndex).getLocalDay().toEpochDay()
+						: Integer.MAX_VALUE;
+				int day = Math.min(oldDay, newDay);
+				// a rate of the same day replaces the previous one
+				int slot = size > 0 && epochDays[size - 1] == day ? size - 1 : size++;
+				epochDays[slot] = day;
+				if (oldDay < newDay) {
+					unscaledRates[slot] = oldSeries.unscaledRates[oldIndex];
+					ids[slot] = oldSeries.ids[oldIndex];
+					oldIndex++;
+				} else {
+					CurrencyEntity entity = entities.get(newIndex);
+					unscaledRates[slot] = entity.getClose().setScale(RATE_SCALE, RoundingMode.HALF_UP).unscaledValue()
+							.longValueExact();
+					ids[slot] = entity.getId() == null ? -1L : entity.getId();
+					newIndex++;
+					oldIndex = oldDay == newDay ? oldIndex + 1 : oldIndex;
+				}
+			}
+			return new FxSeries(Arrays.copyOf(epochDays, size), Arrays.copyOf(unscaledRates, size),
+					Arrays.copyOf(ids, size));
+		}
+
+		public boolean hasRate(LocalDate day) {
+			return this.indexOf(day.toEpochDay()) >= 0;
+		}
+
+		public Optional<BigDecimal> findRate(LocalDate day) {
+			int index = this.indexOf(day.toEpochDay());
+			return index < 0 ? Optional.empty() : Optional.of(this.rate(index));
+		}
+
+		public Optional<BigDecimal> findRateAsOf(LocalDate day) {
+			int index = this.indexAsOf(day.toEpochDay());
+			return index < 0 ? Optional.empty() : Optional.of(this.rate(index));
+		}
+
+		/**
+		 * Returns the rate of the day with scale 8 or 0 if there is none, loops over
+		 * many days use it to avoid a BigDecimal per day.
+		 */
+		public long findUnscaledRate(int epochDay) {
+			int index = this.indexOf(epochDay);
+			return index < 0 ? 0L : this.unscaledRates[index];
+		}
+
+		public Optional<Long> findCurrencyId(LocalDate day) {
+			int index = this.indexOf(day.toEpochDay());
+			return index < 0 || this.ids[index] < 0 ? Optional.empty() : Optional.of(this.ids[index]);
+		}
+
+		private int indexOf(long epochDay) {
+			int index = Arrays.binarySearch(this.epochDays, (int) epochDay);
+			return index < 0 ? -1 : index;
+		}
+
+		private int indexAsOf(long epochDay) {
+			int index = Arrays.binarySearch(this.epochDays, (int) epochDay);
+			return index < 0 ? -index - 2 : index;
+		}
+
+		private BigDecimal rate(int index) {
+			return BigDecimal.valueOf(this.unscaledRates[index], RATE_SCALE);
+		}
+	}
+}
@@ -0,0 +1,73 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager.service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * A day in the past to look up a portfolio value. Horizons are 'ytd', a number
+ * with the unit d, w, m or y ('6m', '3y') or an iso date ('2020-01-31').
+ */
+public class Horizon {
+	public static final List<String> STORED_HORIZONS = List.of("1m", "6m", "1y", "2y", "5y", "10y");
+	private final String name;
+	private final LocalDate localDay;
+
+	private Horizon(String name, LocalDate localDay) {
+		this.name = name;
+		this.localDay = localDay;
+	}
+
+	public static Horizon parse(String name, LocalDate today) {
+		String horizon = name == null ? "" : name.trim().toLowerCase();
+		if (horizon.equals("ytd")) {
+			// the value at the end of the last year
+			return new Horizon(horizon, today.withDayOfYear(1).minusDays(1));
+		}
+		if (horizon.matches("\\d{1,3}[dwmy]")) {
+			long amount = Long.parseLong(horizon.substring(0, horizon.length() - 1));
+			switch (horizon.charAt(horizon.length() - 1)) {
+			case 'd':
+				return new Horizon(horizon, today.minusDays(amount));
+			case 'w':
+				return new Horizon(horizon, today.minusWeeks(amount));
+			case 'm':
+				return new Horizon(horizon, today.minusMonths(amount));
+			default:
+				return new Horizon(horizon, today.minusYears(amount));
+			}
+		}
+		try {
+			return new Horizon(horizon, LocalDate.parse(horizon));
+		} catch (DateTimeParseException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, String.format("Unknown horizon: %s", name), e);
+		}
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public LocalDate getLocalDay() {
+		return localDay;
+	}
+
+	public int getEpochDay() {
+		return (int) this.localDay.toEpochDay();
+	}
+}
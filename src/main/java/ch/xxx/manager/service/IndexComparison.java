@@ -0,0 +1,107 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager.service;
+
+import java.util.List;
+
+/**
+ * Replays the changes of a portfolio with indexes. The value change of a
+ * portfolio change buys or sells index shares at the first index close on or
+ * after the day of the change. The comparison walks the sorted days of the
+ * changes and of all indexes once, every call of next() advances to the next
+ * day that one of the indexes has a close of. The value of an index without a
+ * close of the day is carried forward from its last close.
+ */
+public class IndexComparison {
+	public static final long MISSING = Long.MIN_VALUE;
+	private final TimeSeries changes;
+	private final List<TimeSeries> indexes;
+	private final int[] cursors;
+	private final int[] changeCursors;
+	private final double[] shares;
+	private final long[] lastValues;
+	private int epochDay = Integer.MIN_VALUE;
+
+	/**
+	 * The changes contain the sum of the value changes per day.
+	 */
+	public IndexComparison(TimeSeries changes, List<TimeSeries> indexes) {
+		this.changes = changes;
+		this.indexes = indexes;
+		this.cursors = new int[indexes.size()];
+		this.changeCursors = new int[indexes.size()];
+		this.shares = new double[indexes.size()];
+		this.lastValues = new long[indexes.size()];
+		for (int i = 0; i < indexes.size(); i++) {
+			this.cursors[i] = changes.size() == 0 ? indexes.get(i).size()
+					: indexes.get(i).indexAsOf(changes.getEpochDay(0) - 1) + 1;
+			this.lastValues[i] = MISSING;
+		}
+	}
+
+	public static TimeSeries compare(TimeSeries changes, TimeSeries indexSeries) {
+		IndexComparison comparison = new IndexComparison(changes, List.of(indexSeries));
+		TimeSeries.Builder builder = new TimeSeries.Builder(indexSeries.size());
+		while (comparison.next()) {
+			if (comparison.getValue(0) != MISSING) {
+				builder.add(comparison.getEpochDay(), comparison.getValue(0));
+			}
+		}
+		return builder.build();
+	}
+
+	public boolean next() {
+		int day = Integer.MAX_VALUE;
+		for (int i = 0; i < this.cursors.length; i++) {
+			if (this.cursors[i] < this.indexes.get(i).size()) {
+				day = Math.min(day, this.indexes.get(i).getEpochDay(this.cursors[i]));
+			}
+		}
+		if (day == Integer.MAX_VALUE) {
+			return false;
+		}
+		this.epochDay = day;
+		for (int i = 0; i < this.cursors.length; i++) {
+			TimeSeries indexSeries = this.indexes.get(i);
+			if (this.cursors[i] >= indexSeries.size() || indexSeries.getEpochDay(this.cursors[i]) != day) {
+				continue;
+			}
+			long indexValue = indexSeries.getValue(this.cursors[i]++);
+			if (indexValue <= 0L) {
+				continue;
+			}
+			while (this.changeCursors[i] < this.changes.size()
+					&& this.changes.getEpochDay(this.changeCursors[i]) <= day) {
+				this.shares[i] += (double) this.changes.getValue(this.changeCursors[i]++) / indexValue;
+			}
+			// an index has no value until the first change is replayed with it
+			this.lastValues[i] = this.changeCursors[i] == 0 ? MISSING : indexValue;
+		}
+		return true;
+	}
+
+	public int getEpochDay() {
+		return this.epochDay;
+	}
+
+	public int getColumns() {
+		return this.cursors.length;
+	}
+
+	/**
+	 * Returns the value of the index shares at the current day or MISSING.
+	 */
+	public long getValue(int column) {
+		return this.lastValues[column] == MISSING ? MISSING : Math.round(this.shares[column] * this.lastValues[column]);
+	}
+}
@@ -0,0 +1,98 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager.service;
+
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import ch.xxx.manager.entity.DailyQuoteEntity;
+import ch.xxx.manager.entity.SymbolEntity.SymbolCurrency;
+import ch.xxx.manager.repository.DailyQuoteRepository;
+import ch.xxx.manager.service.FxRateIndex.FxSeries;
+import reactor.core.publisher.Mono;
+
+/**
+ * Caches the close series of the symbols that portfolios are compared with. A
+ * series is read once and shared by all requests until the import of the
+ * symbol evicts it, the ttl expires or the least recently used series is
+ * dropped. The closes are cached in the quote currency, the conversion to euro
+ * uses the current rates.
+ */
+@Component
+public class IndexSeriesCache {
+	@Autowired
+	private DailyQuoteRepository dailyQuoteRepository;
+	@Autowired
+	private FxRateIndex fxRateIndex;
+	@Value("${index.series.max-size:64}")
+	private int maxSize;
+	@Value("${index.series.ttl-minutes:60}")
+	private long ttlMinutes;
+	private final Map<String, Mono<TimeSeries>> closeSeriesBySymbol = new LinkedHashMap<>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Mono<TimeSeries>> eldest) {
+			return this.size() > IndexSeriesCache.this.maxSize;
+		}
+	};
+
+	public synchronized Mono<TimeSeries> getCloseSeries(String symbol) {
+		Duration ttl = Duration.ofMinutes(this.ttlMinutes);
+		return this.closeSeriesBySymbol.computeIfAbsent(symbol.toLowerCase(),
+				key -> this.dailyQuoteRepository.findByLowerSymbol(key)
+						.reduceWith(() -> new TimeSeries.Builder(1024), this::addClose).map(TimeSeries.Builder::build)
+						// a failed read is not cached, the next caller reads the series again
+						.cache(series -> ttl, e -> Duration.ZERO, () -> ttl));
+	}
+
+	/**
+	 * Returns the series of the closes in euro, days without a rate are left out.
+	 */
+	public Mono<TimeSeries> getEuroSeries(String symbol, String currency) {
+		return Mono.zip(this.getCloseSeries(symbol), this.fxRateIndex.getIndex())
+				.map(tuple -> this.toEuroSeries(tuple.getT1(), currency, tuple.getT2()));
+	}
+
+	public synchronized void evict(String symbol) {
+		this.closeSeriesBySymbol.remove(symbol.toLowerCase());
+	}
+
+	private TimeSeries toEuroSeries(TimeSeries closeSeries, String currency, FxRateIndex fxIndex) {
+		if (SymbolCurrency.EUR.toString().equalsIgnoreCase(currency)) {
+			return closeSeries;
+		}
+		FxSeries fxSeries = fxIndex.findSeries(SymbolCurrency.EUR.toString(), currency);
+		TimeSeries.Builder builder = new TimeSeries.Builder(closeSeries.size());
+		for (int i = 0; i < closeSeries.size(); i++) {
+			long unscaledRate = fxSeries.findUnscaledRate(closeSeries.getEpochDay(i));
+			if (unscaledRate > 0L) {
+				builder.add(closeSeries.getEpochDay(i), FxRateIndex.toEuro(closeSeries.getValue(i), unscaledRate));
+			}
+		}
+		return builder.build();
+	}
+
+	private TimeSeries.Builder addClose(TimeSeries.Builder builder, DailyQuoteEntity quote) {
+		return quote.getClose() == null || quote.getLocalDay() == null ? builder
+				: builder.add((int) quote.getLocalDay().toEpochDay(),
+						quote.getClose().setScale(TimeSeries.VALUE_SCALE, RoundingMode.HALF_UP).unscaledValue()
+								.longValueExact());
+	}
+}
@@ -0,0 +1,93 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import ch.xxx.manager.entity.IntraDayQuoteEntity;
+import ch.xxx.manager.entity.SymbolEntity;
+import ch.xxx.manager.repository.IntraDayQuoteRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Keeps the intraday quotes of the newest trading days. The window is counted in
+ * calendar days back from the newest imported quote of each symbol, so
+ * weekends, holidays and a stopped feed do not empty the quotes of a symbol.
+ * Older quotes are removed with one ranged delete per symbol.
+ */
+@Service
+@Transactional
+public class IntraDayQuoteRetentionService {
+	private static final Logger LOGGER = LoggerFactory.getLogger(IntraDayQuoteRetentionService.class);
+	@Autowired
+	private IntraDayQuoteRepository intraDayQuoteRepository;
+	@Autowired
+	private MeterRegistry meterRegistry;
+	@Value("${quote.intraday.retention-days:1}")
+	private long retentionDays;
+	private Counter symbolDeletedCounter;
+	private Counter scheduledDeletedCounter;
+
+	@PostConstruct
+	public void init() {
+		this.symbolDeletedCounter = Counter.builder("quote.intraday.deleted").tag("scope", "symbol")
+				.description("Intraday quotes deleted after a symbol import.").register(this.meterRegistry);
+		this.scheduledDeletedCounter = Counter.builder("quote.intraday.deleted").tag("scope", "all")
+				.description("Intraday quotes deleted by the scheduled retention pass.").register(this.meterRegistry);
+	}
+
+	@Scheduled(cron = "${quote.intraday.retention-cron:0 30 1 * * ?}")
+	public void scheduledRetention() {
+		this.deleteOldQuotes().subscribe();
+	}
+
+	public Mono<Integer> deleteOldQuotes() {
+		return this.intraDayQuoteRepository.findNewestPerSymbol()
+				.distinct(IntraDayQuoteEntity::getSymbolId)
+				.concatMap(newestQuote -> this.intraDayQuoteRepository
+						.deleteBySymbolIdAndLocaldatetimeBefore(newestQuote.getSymbolId(), this.cutoff(newestQuote)))
+				.reduce(0, Integer::sum).doOnNext(count -> {
+					this.scheduledDeletedCounter.increment(count);
+					LOGGER.info("deleteOldQuotes() {} intraday quotes deleted", count);
+				});
+	}
+
+	public Mono<Integer> deleteOldQuotes(SymbolEntity symbolEntity) {
+		return this.intraDayQuoteRepository.findNewestBySymbolId(symbolEntity.getId())
+				.flatMap(newestQuote -> this.intraDayQuoteRepository
+						.deleteBySymbolIdAndLocaldatetimeBefore(symbolEntity.getId(), this.cutoff(newestQuote)))
+				.defaultIfEmpty(0).doOnNext(count -> {
+					this.symbolDeletedCounter.increment(count);
+					LOGGER.info("deleteOldQuotes() {} intraday quotes deleted for symbol: {}", count,
+							symbolEntity.getSymbol());
+				});
+	}
+
+	private LocalDateTime cutoff(IntraDayQuoteEntity newestQuote) {
+		LocalDate newestDay = newestQuote.getLocalDateTime().toLocalDate();
+		return newestDay.minusDays(Math.max(0L, this.retentionDays - 1L)).atStartOfDay();
+	}
+}
@@ -0,0 +1,97 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager.service;
+
+/**
+ * Open addressing set of primitive longs with linear probing. It needs 8 bytes
+ * per slot and no object per entry, 0 is stored in a flag because it marks the
+ * empty slots. Not thread safe.
+ */
+public class LongHashSet {
+	private static final int MIN_CAPACITY = 16;
+	private long[] slots;
+	private int size = 0;
+	private boolean containsZero = false;
+
+	public LongHashSet() {
+		this(MIN_CAPACITY);
+	}
+
+	public LongHashSet(int expectedSize) {
+		this.slots = new long[this.tableSize(expectedSize)];
+	}
+
+	/**
+	 * @return true if the value was not in the set.
+	 */
+	public boolean add(long value) {
+		if (value == 0L) {
+			boolean added = !this.containsZero;
+			this.containsZero = true;
+			return added;
+		}
+		int index = this.findSlot(this.slots, value);
+		if (this.slots[index] == value) {
+			return false;
+		}
+		this.slots[index] = value;
+		this.size++;
+		if (this.size * 2 > this.slots.length) {
+			this.resize();
+		}
+		return true;
+	}
+
+	public boolean contains(long value) {
+		if (value == 0L) {
+			return this.containsZero;
+		}
+		return this.slots[this.findSlot(this.slots, value)] == value;
+	}
+
+	public int size() {
+		return this.size + (this.containsZero ? 1 : 0);
+	}
+
+	private int findSlot(long[] table, long value) {
+		int mask = table.length - 1;
+		int index = this.mix(value) & mask;
+		while (table[index] != 0L && table[index] != value) {
+			index = (index + 1) & mask;
+		}
+		return index;
+	}
+
+	private void resize() {
+		long[] newSlots = new long[this.slots.length * 2];
+		for (long value : this.slots) {
+			if (value != 0L) {
+				newSlots[this.findSlot(newSlots, value)] = value;
+			}
+		}
+		this.slots = newSlots;
+	}
+
+	private int mix(long value) {
+		long hash = value * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32));
+	}
+
+	private int tableSize(int expectedSize) {
+		int capacity = MIN_CAPACITY;
+		while (capacity < expectedSize * 2) {
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+}
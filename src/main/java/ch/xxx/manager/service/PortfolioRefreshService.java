@@ -0,0 +1,134 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager.service;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import ch.xxx.manager.repository.PortfolioToSymbolRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Recalculates the portfolios that hold symbols with newly imported quotes. Each
+ * portfolio is recalculated once from the earliest changed day of its symbols.
+ * The recalculations run in their own transactions, at most as many at a time
+ * as there are cores and database connections.
+ */
+@Service
+public class PortfolioRefreshService {
+	private static final Logger LOGGER = LoggerFactory.getLogger(PortfolioRefreshService.class);
+	private static final String REFRESH_DURATION = "portfolio.refresh.duration";
+	private static final String REFRESH_FAILURES = "portfolio.refresh.failures";
+	@Autowired
+	private PortfolioToSymbolRepository portfolioToSymbolRepository;
+	@Autowired
+	private PortfolioCalculationService portfolioCalculationService;
+	@Autowired
+	private ReactiveTransactionManager transactionManager;
+	@Autowired
+	private MeterRegistry meterRegistry;
+	@Value("${portfolio.refresh.concurrency:0}")
+	private int configuredConcurrency;
+	@Value("${spring.r2dbc.pool.max-size:10}")
+	private int dbPoolSize;
+	private TransactionalOperator transactionalOperator;
+	private Scheduler scheduler;
+	private int concurrency;
+	private Timer refreshTimer;
+	private Counter failureCounter;
+
+	@PostConstruct
+	public void init() {
+		// leave one connection of the pool to the requests of the users
+		this.concurrency = this.configuredConcurrency > 0 ? this.configuredConcurrency
+				: Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), this.dbPoolSize - 1));
+		this.scheduler = Schedulers.newParallel("portfolio-refresh", this.concurrency);
+		this.transactionalOperator = TransactionalOperator.create(this.transactionManager);
+		this.refreshTimer = Timer.builder(REFRESH_DURATION).publishPercentileHistogram().register(this.meterRegistry);
+		this.failureCounter = this.meterRegistry.counter(REFRESH_FAILURES);
+		LOGGER.info("Portfolio refresh concurrency: {}", this.concurrency);
+	}
+
+	@PreDestroy
+	public void destroy() {
+		this.scheduler.dispose();
+	}
+
+	/**
+	 * Recalculates the portfolios that hold one of the symbols. The map contains
+	 * the earliest day with changed quotes per symbol id.
+	 * 
+	 * @return the number of recalculated portfolios
+	 */
+	public Mono<Long> refreshPortfolios(Map<Long, LocalDate> changedDayBySymbolId) {
+		if (changedDayBySymbolId.isEmpty()) {
+			return Mono.just(0L);
+		}
+		return Mono.defer(() -> {
+			final long start = System.nanoTime();
+			return Flux.fromIterable(changedDayBySymbolId.entrySet())
+					.flatMap(entry -> this.portfolioToSymbolRepository.findBySymbolId(entry.getKey())
+							.map(ptsEntity -> Map.entry(ptsEntity.getPortfolioId(), entry.getValue())),
+							this.concurrency)
+					.collect(HashMap<Long, LocalDate>::new,
+							(changedDays, entry) -> changedDays.merge(entry.getKey(), entry.getValue(),
+									(day1, day2) -> day1.isBefore(day2) ? day1 : day2))
+					.flatMapMany(changedDays -> Flux.fromIterable(changedDays.entrySet()))
+					.flatMap(entry -> this.refreshPortfolio(entry).subscribeOn(this.scheduler), this.concurrency)
+					.count().doOnNext(portfolios -> this.logThroughput(portfolios, start));
+		});
+	}
+
+	private Mono<Long> refreshPortfolio(Entry<Long, LocalDate> portfolioIdAndDay) {
+		return Mono.defer(() -> {
+			final long start = System.nanoTime();
+			return this.transactionalOperator
+					.transactional(this.portfolioCalculationService.calculatePortfolio(portfolioIdAndDay.getKey(),
+							portfolioIdAndDay.getValue()))
+					.map(portfolio -> portfolio.getId())
+					.doOnSuccess(portfolioId -> this.refreshTimer.record(System.nanoTime() - start,
+							TimeUnit.NANOSECONDS))
+					.onErrorResume(e -> {
+						LOGGER.warn("Refresh of portfolio {} failed.", portfolioIdAndDay.getKey(), e);
+						this.failureCounter.increment();
+						return Mono.empty();
+					});
+		});
+	}
+
+	private void logThroughput(long portfolios, long start) {
+		long millis = Math.max(1L, (System.nanoTime() - start) / 1_000_000L);
+		LOGGER.info("{} portfolios refreshed in {}ms ({} portfolios/sec)", portfolios, millis,
+				portfolios * 1000L / millis);
+	}
+}
@@ -0,0 +1,91 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager.service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import ch.xxx.manager.dto.PortfolioRiskDto;
+import ch.xxx.manager.repository.PortfolioToSymbolRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Serves the risk figures of the portfolios. The figures are cached per
+ * portfolio until the composition of the portfolio changes or new quotes are
+ * imported.
+ */
+@Service
+public class PortfolioRiskService {
+	private static final Logger LOGGER = LoggerFactory.getLogger(PortfolioRiskService.class);
+	@Autowired
+	private PortfolioCalculationService portfolioCalculationService;
+	@Autowired
+	private PortfolioToSymbolRepository portfolioToSymbolRepository;
+	@Autowired
+	private IndexSeriesCache indexSeriesCache;
+	@Value("${portfolio.risk.risk-free-rate:0.0}")
+	private double riskFreeRate;
+	private final Map<Long, Mono<PortfolioRiskDto>> riskCache = new ConcurrentHashMap<>();
+
+	@Transactional
+	public Mono<PortfolioRiskDto> getPortfolioRisk(Long portfolioId) {
+		return this.riskCache.computeIfAbsent(portfolioId,
+				id -> this.calculatePortfolioRisk(id).doOnError(e -> this.riskCache.remove(id)).cache());
+	}
+
+	public void evictPortfolio(Long portfolioId) {
+		this.riskCache.remove(portfolioId);
+	}
+
+	public void evictAll() {
+		// called for every imported symbol, an empty cache is not logged
+		if (!this.riskCache.isEmpty()) {
+			LOGGER.info("{} cached portfolio risks evicted.", this.riskCache.size());
+			this.riskCache.clear();
+		}
+	}
+
+	private Mono<PortfolioRiskDto> calculatePortfolioRisk(Long portfolioId) {
+		return Mono.zip(this.portfolioCalculationService.findPortfolioSeries(portfolioId),
+				this.findChangeDays(portfolioId), this.findIndexSeries())
+				.map(tuple -> RiskCalculator.calculate(tuple.getT1(), tuple.getT2(), tuple.getT3(),
+						this.riskFreeRate))
+				.doOnNext(dto -> dto.setPortfolioId(portfolioId));
+	}
+
+	private Mono<int[]> findChangeDays(Long portfolioId) {
+		return this.portfolioToSymbolRepository.findByPortfolioId(portfolioId)
+				.flatMapIterable(
+						ptsEntity -> Arrays.asList(ptsEntity.getChangedAt(), ptsEntity.getRemovedAt()))
+				.collectList().map(days -> days.stream().filter(day -> day != null)
+						.mapToInt(day -> (int) day.toEpochDay()).sorted().distinct().toArray());
+	}
+
+	private Mono<List<Tuple3<String, String, TimeSeries>>> findIndexSeries() {
+		return Flux.fromArray(ComparisonIndex.values())
+				.flatMapSequential(comparisonIndex -> this.indexSeriesCache
+						.getEuroSeries(comparisonIndex.getSymbol(), comparisonIndex.getCurrency().toString())
+						.map(series -> new Tuple3<>(comparisonIndex.name(), comparisonIndex.getSymbol(), series)))
+				.collectList();
+	}
+}
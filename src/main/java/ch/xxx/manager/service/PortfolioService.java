@@ -14,22 +14,24 @@ package ch.xxx.manager.service;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import ch.xxx.manager.dto.PortfolioDto;
+import ch.xxx.manager.dto.PortfolioHorizonDto;
+import ch.xxx.manager.dto.PortfolioValueDto;
 import ch.xxx.manager.dto.SymbolDto;
 import ch.xxx.manager.entity.PortfolioEntity;
 import ch.xxx.manager.entity.PortfolioToSymbolEntity;
 import ch.xxx.manager.entity.SymbolEntity;
-import ch.xxx.manager.entity.SymbolEntity.QuoteSource;
-import ch.xxx.manager.entity.SymbolEntity.SymbolCurrency;
-
 import ch.xxx.manager.repository.PortfolioRepository;
 import ch.xxx.manager.repository.PortfolioToSymbolRepository;
+import ch.xxx.manager.repository.PortfolioValueRepository;
 import ch.xxx.manager.repository.SymbolRepository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -44,8 +46,12 @@ public class PortfolioService {
 	@Autowired
 	private SymbolRepository symbolRepository;
 	@Autowired
+	private PortfolioValueRepository portfolioValueRepository;
+	@Autowired
 //	private PortfolioCalculationParallelService portfolioCalculationService;
 	private PortfolioCalculationService portfolioCalculationService;
+	@Autowired
+	private PortfolioRiskService portfolioRiskService;
 
 	public Flux<PortfolioDto> getPortfoliosByUserId(Long userId) {
 		return this.portfolioRepository.findByUserId(userId).flatMapSequential(entity -> this.convertFlux(entity));
@@ -55,36 +61,74 @@ public class PortfolioService {
 		return this.portfolioRepository.findById(portfolioId).flatMap(entity -> this.convert(entity));
 	}
 
+	/**
+	 * Looks up the portfolio values at the horizons with one pass over the value
+	 * series, the values are in the order of the horizons.
+	 */
+	public Flux<PortfolioHorizonDto> getPortfolioValuesAtHorizons(Long portfolioId, List<String> horizonNames) {
+		return Flux.defer(() -> {
+			LocalDate today = LocalDate.now();
+			List<Horizon> horizons = horizonNames.stream().map(name -> Horizon.parse(name, today))
+					.collect(Collectors.toList());
+			return this.portfolioCalculationService.findPortfolioSeries(portfolioId).flatMapMany(series -> {
+				int[] indexes = series.indexesAsOf(horizons.stream().mapToInt(Horizon::getEpochDay).toArray());
+				return Flux.range(0, horizons.size())
+						.map(i -> new PortfolioHorizonDto(horizons.get(i).getName(), horizons.get(i).getLocalDay(),
+								indexes[i] < 0 ? null : series.getLocalDay(indexes[i]),
+								indexes[i] < 0 ? null : series.getDecimal(indexes[i])));
+			});
+		});
+	}
+
+	public Flux<PortfolioValueDto> getPortfolioValues(Long portfolioId, LocalDate start, LocalDate end) {
+		return this.portfolioValueRepository.findByPortfolioIdAndDayBetween(portfolioId, start, end)
+				.map(entity -> new PortfolioValueDto(entity.getLocalDay(), entity.getClose()));
+	}
+
 	public Mono<PortfolioDto> addPortfolio(PortfolioDto dto) {
 		return this.portfolioRepository.save(this.convert(dto))
 				.flatMap(myEntity -> this.convertFlux(myEntity).singleOrEmpty());
 	}
 
 	public Mono<PortfolioDto> addSymbolToPortfolio(PortfolioDto dto, Long symbolId, Long weight, LocalDateTime changedAt) {
-		return Mono.just(this.portfolioToSymbolRepository
-				.save(this.createPtsEntity(dto, symbolId, weight, changedAt.toLocalDate())).block())
-				.flatMap(myEntity -> this.portfolioCalculationService.calculatePortfolio(dto.getId()))
+		return this.portfolioToSymbolRepository
+				.save(this.createPtsEntity(dto, symbolId, weight, changedAt.toLocalDate()))
+				.flatMap(myEntity -> this.portfolioCalculationService.calculatePortfolio(dto.getId(),
+						myEntity.getChangedAt()))
+				.doOnNext(entity -> this.portfolioRiskService.evictPortfolio(entity.getId()))
 				.flatMap(entity -> this.convert(entity));
 	}
 
 	public Mono<PortfolioDto> updatePortfolioSymbolWeight(PortfolioDto dto, Long symbolId, Long weight,
 			LocalDateTime changedAt) {
-		return Mono.just(this.portfolioToSymbolRepository.findByPortfolioIdAndSymbolId(dto.getId(), symbolId)
-				.flatMap(myEntity -> Flux.just(
-						this.updatePtsEntity(myEntity, Optional.of(weight), changedAt.toLocalDate(), Optional.empty())))
-				.flatMap(newEntity -> Flux.just(this.portfolioToSymbolRepository.save(newEntity))).count().block())
-				.flatMap(num -> this.portfolioCalculationService.calculatePortfolio(dto.getId()))
+		// the weight applies from the earlier of the old and the new changedAt
+		return this.portfolioToSymbolRepository.findByPortfolioIdAndSymbolId(dto.getId(), symbolId)
+				.flatMap(myEntity -> {
+					LocalDate fromDay = this.earlierDay(myEntity.getChangedAt(), changedAt.toLocalDate());
+					return this.portfolioToSymbolRepository.save(this.updatePtsEntity(myEntity, Optional.of(weight),
+							changedAt.toLocalDate(), Optional.empty())).map(savedEntity -> fromDay);
+				}).reduce(this::earlierDay).defaultIfEmpty(LocalDate.now())
+				.flatMap(fromDay -> this.portfolioCalculationService.calculatePortfolio(dto.getId(), fromDay))
+				.doOnNext(entity -> this.portfolioRiskService.evictPortfolio(entity.getId()))
 				.flatMap(entity -> this.convert(entity));
 	}
 
 	public Mono<PortfolioDto> removeSymbolFromPortfolio(Long portfolioId, Long symbolId, LocalDateTime removedAt) {
-		return Mono.just(this.portfolioToSymbolRepository.findByPortfolioIdAndSymbolId(portfolioId, symbolId)
-				.flatMap(entity -> Flux.just(this.portfolioToSymbolRepository.save(this.updatePtsEntity(entity,
-						Optional.empty(), LocalDate.now(), Optional.of(removedAt.toLocalDate()))))).count().block())
-				.flatMap(num -> this.portfolioCalculationService.calculatePortfolio(portfolioId))
+		return this.portfolioToSymbolRepository.findByPortfolioIdAndSymbolId(portfolioId, symbolId)
+				.flatMap(entity -> {
+					LocalDate fromDay = this.earlierDay(entity.getRemovedAt(), removedAt.toLocalDate());
+					return this.portfolioToSymbolRepository.save(this.updatePtsEntity(entity, Optional.empty(),
+							LocalDate.now(), Optional.of(removedAt.toLocalDate()))).map(savedEntity -> fromDay);
+				}).reduce(this::earlierDay).defaultIfEmpty(LocalDate.now())
+				.flatMap(fromDay -> this.portfolioCalculationService.calculatePortfolio(portfolioId, fromDay))
+				.doOnNext(entity -> this.portfolioRiskService.evictPortfolio(entity.getId()))
 				.flatMap(entity -> this.convert(entity));
 	}
 
+	private LocalDate earlierDay(LocalDate day1, LocalDate day2) {
+		return day1 == null ? day2 : day2 == null || day1.isBefore(day2) ? day1 : day2;
+	}
+
 	private PortfolioToSymbolEntity updatePtsEntity(PortfolioToSymbolEntity entity, Optional<Long> weightOpt,
 			LocalDate changedAt, Optional<LocalDate> removedAtOpt) {
 		weightOpt.ifPresent(weight -> entity.setWeight(weight));
@@ -141,22 +185,7 @@ public class PortfolioService {
 				entity.getCreatedAt().atStartOfDay(), entity.getMonth1(), entity.getMonth6(), entity.getYear1(),
 				entity.getYear2(), entity.getYear5(), entity.getYear10());
 		return this.portfolioToSymbolRepository.findByPortfolioId(dto.getId())
-				.switchIfEmpty(this.createPortfolioPtSAndSymbol(entity))
+				.switchIfEmpty(Mono.just(new PortfolioToSymbolEntity()))
 				.flatMapSequential(p2SymbolEntity -> this.convert(p2SymbolEntity, dto)).distinct();
 	}
-
-	private Flux<PortfolioToSymbolEntity> createPortfolioPtSAndSymbol(PortfolioEntity portfolioEntity) {
-		SymbolEntity symbolEntity = new SymbolEntity(null, ServiceUtils.generateRandomPortfolioSymbol(), portfolioEntity.getName(), SymbolCurrency.EUR, QuoteSource.PORTFOLIO);
-		return this.symbolRepository.save(symbolEntity).flatMap(mySymbolEntity -> 
-			this.portfolioToSymbolRepository.save(this.createPtSEntity(portfolioEntity, mySymbolEntity.getId()))).flux();
-	}
-
-	private PortfolioToSymbolEntity createPtSEntity(PortfolioEntity portfolioEntity, Long symbolId) {
-		PortfolioToSymbolEntity ptSEntity = new PortfolioToSymbolEntity();
-		ptSEntity.setChangedAt(portfolioEntity.getCreatedAt());
-		ptSEntity.setPortfolioId(portfolioEntity.getId());
-		ptSEntity.setWeight(1L);
-		ptSEntity.setSymbolId(symbolId);
-		return ptSEntity;
-	}
 }
@@ -15,159 +15,210 @@ package ch.xxx.manager.service;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import ch.xxx.manager.entity.CurrencyEntity;
+import ch.xxx.manager.dto.IndexColumnDto;
+import ch.xxx.manager.dto.IndexComparisonDto;
+import ch.xxx.manager.dto.IndexComparisonRowDto;
 import ch.xxx.manager.entity.DailyQuoteEntity;
-import ch.xxx.manager.entity.PortfolioToSymbolEntity;
-import ch.xxx.manager.entity.SymbolEntity;
+import ch.xxx.manager.entity.PortfolioAndSymbolEntity;
 import ch.xxx.manager.entity.SymbolEntity.SymbolCurrency;
-import ch.xxx.manager.repository.CurrencyRepository;
+import ch.xxx.manager.jwt.Tuple;
 import ch.xxx.manager.repository.DailyQuoteRepository;
-import ch.xxx.manager.repository.PortfolioToSymbolRepository;
+import ch.xxx.manager.repository.PortfolioAndSymbolRepository;
 import ch.xxx.manager.repository.SymbolRepository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
 
+/**
+ * Compares a portfolio with indexes, the portfolio changes are replayed with
+ * index shares. The index series come from the IndexSeriesCache, a comparison
+ * reads an index at most once.
+ */
 @Service
 public class PortfolioToIndexService {
 	private static final Logger LOGGER = LoggerFactory.getLogger(PortfolioToIndexService.class);
 	@Autowired
-	private PortfolioToSymbolRepository portfolioToSymbolRepository;
-	@Autowired
-	private SymbolRepository symbolRepository;
+	private PortfolioAndSymbolRepository portfolioAndSymbolRepository;
 	@Autowired
 	private DailyQuoteRepository dailyQuoteRepository;
 	@Autowired
-	private CurrencyRepository currencyRepository;
+	private FxRateIndex fxRateIndex;
+	@Autowired
+	private IndexSeriesCache indexSeriesCache;
+	@Autowired
+	private SymbolRepository symbolRepository;
 
 	public Flux<DailyQuoteEntity> calculateIndexComparison(Long portfolioId, ComparisonIndex comparisonIndex) {
 		LOGGER.info("CalculateComparison Index: {} for PortfolioId: {}", comparisonIndex.getName(), portfolioId);
-		return this.currencyRepository.findAll().collectMultimap(entity -> entity.getLocalDay(), entity -> entity)
-				.flatMap(currencyMap -> this.portfolioToSymbolRepository.findByPortfolioId(portfolioId).collectList()
-						.flatMap(ptsEntities -> this.symbolRepository
-								.findAllById(ptsEntities.stream().map(ptsEntity -> ptsEntity.getSymbolId()).distinct()
-										.collect(Collectors.toList()))
-								.flatMap(symbolEntity -> this.dailyQuoteRepository
-										.findBySymbol(symbolEntity.getSymbol()).collectList()
-										.flatMap(dailyQuoteEntities -> this.calculateIndexes(ptsEntities, symbolEntity,
-												dailyQuoteEntities, currencyMap, comparisonIndex))
-										.flux())
-								.collectList()))
-				.flux().flatMap(results -> Flux.fromIterable(results));
+		return Mono.zip(this.findPortfolioChanges(portfolioId), this.indexSeriesCache
+				.getEuroSeries(comparisonIndex.getSymbol(), comparisonIndex.getCurrency().toString()))
+				.flatMapMany(tuple -> this.<DailyQuoteEntity>walkComparison(tuple.getT1(), List.of(tuple.getT2()),
+						comparison -> comparison.getValue(0) == IndexComparison.MISSING ? Optional.empty()
+								: Optional.of(this.createQuote(comparison, comparisonIndex))));
 	}
 
-	private Mono<DailyQuoteEntity> upsertIndexComparisonDate(Tuple3<LocalDate, BigDecimal[], BigDecimal> tuple,
-			Map<LocalDate, DailyQuoteEntity> comparisonIndexQuoteMap,
-			Map<LocalDate, DailyQuoteEntity> currentSymbolQuoteMap,
-			Map<LocalDate, Collection<CurrencyEntity>> currencyMap) {
-		Optional<DailyQuoteEntity> currentQuoteOpt = Optional.ofNullable(currentSymbolQuoteMap.get(tuple.getA()));
-		Optional<DailyQuoteEntity> comparisonQuoteOpt = Optional.ofNullable(comparisonIndexQuoteMap.get(tuple.getA()));
-		if (comparisonQuoteOpt.isEmpty()) {
-			return Mono.empty();
+	/**
+	 * Compares the portfolio with the comparison indexes and the index symbols in
+	 * one walk, the values of the indexes are returned as columns aligned to the
+	 * days. The columns are in the order of the indexes and the symbols, unknown
+	 * symbols have no values.
+	 */
+	public Mono<IndexComparisonDto> calculateIndexComparisons(Long portfolioId, List<ComparisonIndex> comparisonIndexes,
+			List<String> symbols) {
+		return this.findComparisonData(portfolioId, comparisonIndexes, symbols).flatMap(tuple -> {
+			IndexComparisonDto dto = new IndexComparisonDto();
+			dto.setPortfolioId(portfolioId);
+			tuple.getT2().forEach(index -> dto.getColumns()
+					.add(new IndexColumnDto(index.getA(), index.getB(), new ArrayList<>())));
+			return this.walkComparison(tuple.getT1(), this.toSeries(tuple.getT2()), this::createRow)
+					.doOnNext(row -> this.addRow(dto, row)).then(Mono.just(dto));
+		});
+	}
+
+	/**
+	 * Streams the rows of the comparison in date order, a row is only computed
+	 * when the subscriber requests it. The values of a row are in the order of the
+	 * indexes and the symbols.
+	 */
+	public Flux<IndexComparisonRowDto> streamIndexComparisons(Long portfolioId,
+			List<ComparisonIndex> comparisonIndexes, List<String> symbols) {
+		return this.findComparisonData(portfolioId, comparisonIndexes, symbols).flatMapMany(
+				tuple -> this.walkComparison(tuple.getT1(), this.toSeries(tuple.getT2()), this::createRow));
+	}
+
+	private Mono<Tuple2<TimeSeries, List<Tuple3<String, String, TimeSeries>>>> findComparisonData(Long portfolioId,
+			List<ComparisonIndex> comparisonIndexes, List<String> symbols) {
+		LOGGER.info("CalculateComparison Indexes: {} Symbols: {} for PortfolioId: {}", comparisonIndexes, symbols,
+				portfolioId);
+		return Mono.zip(this.findPortfolioChanges(portfolioId), this.findIndexes(comparisonIndexes, symbols));
+	}
+
+	private <T> Flux<T> walkComparison(TimeSeries changes, List<TimeSeries> indexes,
+			Function<IndexComparison, Optional<T>> rowMapper) {
+		return Flux.<Optional<T>, IndexComparison>generate(() -> new IndexComparison(changes, indexes),
+				(comparison, sink) -> {
+					if (comparison.next()) {
+						sink.next(rowMapper.apply(comparison));
+					} else {
+						sink.complete();
+					}
+					return comparison;
+				}).filter(Optional::isPresent).map(Optional::get);
+	}
+
+	private List<TimeSeries> toSeries(List<Tuple3<String, String, TimeSeries>> indexes) {
+		return indexes.stream().map(Tuple3::getC).collect(Collectors.toList());
+	}
+
+	private Optional<IndexComparisonRowDto> createRow(IndexComparison comparison) {
+		List<BigDecimal> values = new ArrayList<>(comparison.getColumns());
+		for (int column = 0; column < comparison.getColumns(); column++) {
+			long value = comparison.getValue(column);
+			values.add(value == IndexComparison.MISSING ? null : BigDecimal.valueOf(value, TimeSeries.VALUE_SCALE));
+		}
+		return Optional.of(new IndexComparisonRowDto(LocalDate.ofEpochDay(comparison.getEpochDay()), values));
+	}
+
+	private void addRow(IndexComparisonDto dto, IndexComparisonRowDto row) {
+		dto.getDays().add(row.getLocalDay());
+		for (int column = 0; column < row.getValues().size(); column++) {
+			dto.getColumns().get(column).getValues().add(row.getValues().get(column));
 		}
-		SymbolCurrency symbolCurrency = List.of(ComparisonIndex.values()).stream()
-				.filter(compIndex -> compIndex.getSymbol().equals(comparisonQuoteOpt.get().getSymbol())).findFirst()
-				.map(compIndex -> compIndex.getCurrency()).orElseThrow();
-		Optional<CurrencyEntity> currencyQuoteOpt = currencyMap.get(tuple.getA()).stream()
-				.filter(currencyEntity -> symbolCurrency.toString().equals(currencyEntity.getFrom_curr())).findFirst();
-		if (!symbolCurrency.equals(SymbolCurrency.EUR) && currencyQuoteOpt.isEmpty()) {
+	}
+
+	/**
+	 * Returns the (name, symbol, euro series) of the indexes in request order.
+	 */
+	private Mono<List<Tuple3<String, String, TimeSeries>>> findIndexes(List<ComparisonIndex> comparisonIndexes,
+			List<String> symbols) {
+		return Flux.concat(
+				Flux.fromIterable(comparisonIndexes)
+						.map(comparisonIndex -> new Tuple3<>(comparisonIndex.name(), comparisonIndex.getSymbol(),
+								comparisonIndex.getCurrency().toString())),
+				Flux.fromIterable(symbols).flatMapSequential(symbol -> this.symbolRepository
+						.findBySymbolSingle(symbol.toLowerCase())
+						.map(symbolEntity -> new Tuple3<>(symbolEntity.getName(), symbolEntity.getSymbol(),
+								symbolEntity.getCurr()))
+						.defaultIfEmpty(new Tuple3<>(symbol, symbol, null))))
+				.flatMapSequential(index -> (index.getC() == null ? Mono.just(TimeSeries.EMPTY)
+						: this.indexSeriesCache.getEuroSeries(index.getB(), index.getC()))
+								.map(series -> new Tuple3<>(index.getA(), index.getB(), series)))
+				.collectList();
+	}
+
+	/**
+	 * Creates the series of the value changes in euro of the portfolio. A symbol
+	 * adds weight * close on the day it was added and subtracts it on the day it
+	 * was removed, with the first close on or after the day.
+	 */
+	private Mono<TimeSeries> findPortfolioChanges(Long portfolioId) {
+		return this.fxRateIndex.getIndex()
+				.flatMap(fxIndex -> this.portfolioAndSymbolRepository
+						.findPortfolioCalcEntitiesByPortfolioId(portfolioId)
+						.filter(pAndSymEntity -> pAndSymEntity.getChangedAt() != null)
+						.flatMap(pAndSymEntity -> Flux.concat(
+								this.findChange(pAndSymEntity, pAndSymEntity.getChangedAt(), 1L, fxIndex),
+								this.findChange(pAndSymEntity, pAndSymEntity.getRemovedAt(), -1L, fxIndex)))
+						.collect(HashMap<Integer, Long>::new,
+								(changes, change) -> changes.merge(change.getA(), change.getB(), Long::sum)))
+				.map(this::createChangeSeries);
+	}
+
+	private Mono<Tuple<Integer, Long>> findChange(PortfolioAndSymbolEntity pAndSymEntity, LocalDate day,
+			long direction, FxRateIndex fxIndex) {
+		if (day == null) {
 			return Mono.empty();
 		}
-		BigDecimal comparisonQuoteEur = comparisonQuoteOpt.get().getClose().multiply(currencyQuoteOpt.get().getClose());
-		BigDecimal newPortfolioShares = tuple.getB()[0]
-				.add(tuple.getC().divide(comparisonQuoteEur, 10, RoundingMode.HALF_UP));
-		tuple.getB()[0] = newPortfolioShares;
-		DailyQuoteEntity newDailyQuoteEntity = currentQuoteOpt.orElse(new DailyQuoteEntity());
-		newDailyQuoteEntity.setCurrencyId(currencyQuoteOpt.get().getId());
-		newDailyQuoteEntity.setClose(newPortfolioShares.multiply(comparisonQuoteOpt.get().getClose()));
-		newDailyQuoteEntity.setLocalDay(tuple.getA());
-		newDailyQuoteEntity.setSymbol(comparisonQuoteOpt.get().getSymbol());
-		newDailyQuoteEntity.setSymbolId(comparisonQuoteOpt.get().getSymbolId());
-		newDailyQuoteEntity.setVolume(comparisonQuoteOpt.get().getVolume());
-
-		return Mono.just(newDailyQuoteEntity);
+		return this.dailyQuoteRepository.findBySymbolIdFromDay(pAndSymEntity.getSymbolId(), day).next()
+				.flatMap(quote -> Mono.justOrEmpty(this.toEuro(quote, pAndSymEntity.getCurr(), fxIndex))
+						.map(close -> new Tuple<>((int) day.toEpochDay(),
+								direction * Math.multiplyExact(this.weight(pAndSymEntity), close))));
 	}
 
-	private Mono<DailyQuoteEntity> calculateIndexes(List<PortfolioToSymbolEntity> ptsEntities,
-			SymbolEntity symbolEntity, List<DailyQuoteEntity> dailyQuoteEntities,
-			Map<LocalDate, Collection<CurrencyEntity>> currencyMap, ComparisonIndex comparisonIndex) {
-		final Map<LocalDate, DailyQuoteEntity> symbolQuoteMap = dailyQuoteEntities.stream()
-				.collect(Collectors.toMap(DailyQuoteEntity::getLocalDay, entity -> entity));
-		final List<Tuple3<PortfolioToSymbolEntity, SymbolEntity, DailyQuoteEntity>> sortedPortfolioChanges = this
-				.calculateSortedPortfolioChanges(ptsEntities, symbolEntity, dailyQuoteEntities);
-		Mono<Map<LocalDate, DailyQuoteEntity>> comparisonIndexQuotes = this.dailyQuoteRepository
-				.findBySymbol(comparisonIndex.getSymbol()).collectMap(DailyQuoteEntity::getLocalDay);
-		return comparisonIndexQuotes.flatMap(quoteMap -> this.recalculateComparisonIndex(quoteMap, symbolQuoteMap,
-				sortedPortfolioChanges, currencyMap));
+	private Optional<Long> toEuro(DailyQuoteEntity quote, String currency, FxRateIndex fxIndex) {
+		if (quote.getClose() == null) {
+			return Optional.empty();
+		}
+		long unscaledClose = quote.getClose().setScale(TimeSeries.VALUE_SCALE, RoundingMode.HALF_UP)
+				.unscaledValue().longValueExact();
+		if (SymbolCurrency.EUR.toString().equalsIgnoreCase(currency)) {
+			return Optional.of(unscaledClose);
+		}
+		// the rates are euro to currency, the euro value is close / rate of the day
+		// like in IndexSeriesCache and PortfolioCalculationService
+		long unscaledRate = fxIndex.findSeries(SymbolCurrency.EUR.toString(), currency)
+				.findUnscaledRate((int) quote.getLocalDay().toEpochDay());
+		return unscaledRate <= 0L ? Optional.empty() : Optional.of(FxRateIndex.toEuro(unscaledClose, unscaledRate));
 	}
 
-	private Mono<DailyQuoteEntity> recalculateComparisonIndex(Map<LocalDate, DailyQuoteEntity> comparisonIndexQuoteMap,
-			Map<LocalDate, DailyQuoteEntity> currentSymbolQuoteMap,
-			List<Tuple3<PortfolioToSymbolEntity, SymbolEntity, DailyQuoteEntity>> sortedPortfolioChanges,
-			Map<LocalDate, Collection<CurrencyEntity>> currencyMap) {
-		final List<LocalDate> comparisonIndexDates = comparisonIndexQuoteMap.keySet().stream()
-				.filter(myLocalDate -> -1 > myLocalDate.compareTo(sortedPortfolioChanges.get(0).getA().getChangedAt()))
-				.sorted().collect(Collectors.toList());
-		final BigDecimal[] portfolioShares = List.of(BigDecimal.ZERO).toArray(new BigDecimal[1]);
-		Mono<DailyQuoteEntity> result = comparisonIndexDates.stream().flatMap(myDate -> {
-			BigDecimal difference = this.updatedPortfolioValue(myDate, currencyMap, sortedPortfolioChanges);
-			return Stream.of(this.upsertIndexComparisonDate(
-					new Tuple3<LocalDate, BigDecimal[], BigDecimal>(myDate, portfolioShares, difference),
-					comparisonIndexQuoteMap, currentSymbolQuoteMap, currencyMap));
-		}).findFirst().orElse(Mono.empty());
-		return result;
+	private long weight(PortfolioAndSymbolEntity pAndSymEntity) {
+		return pAndSymEntity.getWeight() == null || pAndSymEntity.getWeight() < 1L ? 1L : pAndSymEntity.getWeight();
 	}
 
-	private BigDecimal updatedPortfolioValue(LocalDate currentDate,
-			Map<LocalDate, Collection<CurrencyEntity>> currencyMap,
-			List<Tuple3<PortfolioToSymbolEntity, SymbolEntity, DailyQuoteEntity>> portfolioChanges) {
-		BigDecimal difference = portfolioChanges.stream()
-				.filter(tuple3 -> currentDate.equals(tuple3.getA().getChangedAt())
-						|| currentDate.equals(tuple3.getA().getRemovedAt()))
-				.reduce(BigDecimal.ZERO, (value, tuple3) -> {
-					BigDecimal newValue = BigDecimal.ZERO;
-					if (SymbolCurrency.EUR.toString().equals(tuple3.getB().getCurr())) {
-						newValue = BigDecimal.valueOf(tuple3.getA().getWeight()).multiply(tuple3.getC().getClose());
-					} else if (currencyMap.containsKey(currentDate) && currencyMap.get(currentDate).stream().anyMatch(
-							currencyEntity -> tuple3.getB().getCurr().equals(currencyEntity.getFrom_curr()))) {
-						BigDecimal currencyValue = currencyMap.get(currentDate).stream()
-								.filter(currencyEntity -> tuple3.getB().getCurr().equals(currencyEntity.getFrom_curr()))
-								.map(currencyEntity -> currencyEntity.getClose()).findFirst().orElseThrow();
-						newValue = BigDecimal.valueOf(tuple3.getA().getWeight())
-								.multiply(tuple3.getC().getClose().multiply(currencyValue));
-					}
-					return value.add(newValue);
-				}, BigDecimal::add);
-		return difference;
+	private TimeSeries createChangeSeries(Map<Integer, Long> changes) {
+		TimeSeries.Builder builder = new TimeSeries.Builder(changes.size());
+		changes.forEach((epochDay, value) -> builder.add(epochDay, value));
+		return builder.build();
 	}
 
-	private List<Tuple3<PortfolioToSymbolEntity, SymbolEntity, DailyQuoteEntity>> calculateSortedPortfolioChanges(
-			List<PortfolioToSymbolEntity> ptsEntities, SymbolEntity symbolEntity,
-			List<DailyQuoteEntity> dailyQuoteEntities) {
-		Map<LocalDate, PortfolioToSymbolEntity> myPtsEntities = ptsEntities.stream()
-				.filter(ptsEntity -> ptsEntity.getPortfolioId().equals(symbolEntity.getId()))
-				.collect(Collectors.toMap(ptsEntity -> ptsEntity.getChangedAt() != null ? ptsEntity.getChangedAt()
-						: ptsEntity.getRemovedAt(), ptsEntity -> ptsEntity));
-		Map<LocalDate, DailyQuoteEntity> myDailyQuoteEntities = dailyQuoteEntities.stream()
-				.filter(dailyQuoteEntity -> myPtsEntities.containsKey(dailyQuoteEntity.getLocalDay()))
-				.collect(Collectors.toMap(dailyQuoteEntity -> dailyQuoteEntity.getLocalDay(),
-						dailyQuoteEntity -> dailyQuoteEntity));
-		List<Tuple3<PortfolioToSymbolEntity, SymbolEntity, DailyQuoteEntity>> portfolioChanges = myPtsEntities.keySet()
-				.stream().sorted()
-				.flatMap(myDate -> Stream.of(new Tuple3<PortfolioToSymbolEntity, SymbolEntity, DailyQuoteEntity>(
-						myPtsEntities.get(myDate), symbolEntity, myDailyQuoteEntities.get(myDate))))
-				.collect(Collectors.toList());
-		return portfolioChanges;
+	private DailyQuoteEntity createQuote(IndexComparison comparison, ComparisonIndex comparisonIndex) {
+		DailyQuoteEntity entity = new DailyQuoteEntity();
+		entity.setLocalDay(LocalDate.ofEpochDay(comparison.getEpochDay()));
+		entity.setClose(BigDecimal.valueOf(comparison.getValue(0), TimeSeries.VALUE_SCALE));
+		entity.setSymbol(comparisonIndex.getSymbol());
+		return entity;
 	}
 }
@@ -0,0 +1,252 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import ch.xxx.manager.entity.ImportJobEntity;
+import ch.xxx.manager.entity.ImportJobEntity.JobState;
+import ch.xxx.manager.entity.PortfolioToSymbolEntity;
+import ch.xxx.manager.entity.SymbolEntity;
+import ch.xxx.manager.entity.SymbolEntity.QuoteSource;
+import ch.xxx.manager.repository.ImportJobRepository;
+import ch.xxx.manager.repository.ImportWatermarkRepository;
+import ch.xxx.manager.repository.PortfolioToSymbolRepository;
+import ch.xxx.manager.repository.SymbolRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Nightly daily quote import. A run creates one persisted job per symbol, the
+ * symbols held in portfolios are imported first. Each quote source has its own
+ * token bucket and concurrency limit. A failed job is retried with backoff up to
+ * the max attempts. A restarted node continues the open jobs of the unfinished
+ * run. After the run the portfolios that hold symbols with new
+ * quotes are recalculated.
+ */
+@Service
+public class QuoteImportJobService {
+	private static final Logger LOGGER = LoggerFactory.getLogger(QuoteImportJobService.class);
+	private static final int PORTFOLIO_PRIORITY = 0;
+	private static final int DEFAULT_PRIORITY = 1;
+	private static final long JOB_RETENTION_DAYS = 7L;
+	private static final Comparator<ImportJobEntity> JOB_ORDER = Comparator
+			.comparing(ImportJobEntity::getPriority).thenComparing(ImportJobEntity::getId);
+	@Autowired
+	private QuoteImportService quoteImportService;
+	@Autowired
+	private SymbolRepository symbolRepository;
+	@Autowired
+	private PortfolioToSymbolRepository portfolioToSymbolRepository;
+	@Autowired
+	private ImportJobRepository importJobRepository;
+	@Autowired
+	private ImportWatermarkRepository importWatermarkRepository;
+	@Autowired
+	private PortfolioRefreshService portfolioRefreshService;
+	@Autowired
+	private PortfolioRiskService portfolioRiskService;
+	@Value("${quote.import.alphavantage.requests-per-minute:5}")
+	private long alphavantageRequestsPerMinute;
+	@Value("${quote.import.alphavantage.concurrency:1}")
+	private int alphavantageConcurrency;
+	@Value("${quote.import.yahoo.requests-per-minute:60}")
+	private long yahooRequestsPerMinute;
+	@Value("${quote.import.yahoo.concurrency:4}")
+	private int yahooConcurrency;
+	@Value("${quote.import.max-attempts:3}")
+	private int maxAttempts;
+	@Value("${quote.import.retry.min-backoff-ms:30000}")
+	private long retryMinBackoffMs;
+	private final Map<QuoteSource, TokenBucket> tokenBuckets = new EnumMap<>(QuoteSource.class);
+	private final Map<QuoteSource, Integer> concurrencies = new EnumMap<>(QuoteSource.class);
+	private final AtomicBoolean running = new AtomicBoolean(false);
+	private final ConcurrentSkipListSet<LocalDate> queuedRunDays = new ConcurrentSkipListSet<>();
+
+	@PostConstruct
+	public void init() {
+		this.tokenBuckets.put(QuoteSource.ALPHAVANTAGE,
+				new TokenBucket(this.alphavantageRequestsPerMinute, this.alphavantageConcurrency));
+		this.concurrencies.put(QuoteSource.ALPHAVANTAGE, this.alphavantageConcurrency);
+		this.tokenBuckets.put(QuoteSource.YAHOO, new TokenBucket(this.yahooRequestsPerMinute, this.yahooConcurrency));
+		this.concurrencies.put(QuoteSource.YAHOO, this.yahooConcurrency);
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void resumeImporter() {
+		this.importJobRepository.findNewestUnfinished(this.maxAttempts).flatMap(job -> this.runJobs(job.getRunDay()))
+				.subscribe(count -> LOGGER.info("Resumed quote import finished with {} quotes.", count),
+						e -> LOGGER.error("Resumed quote import failed.", e));
+	}
+
+	@Scheduled(cron = "0 0 2 * * ?")
+	public void scheduledImporter() {
+		this.importDailyQuotes(LocalDate.now())
+				.subscribe(count -> LOGGER.info("Scheduled quote import finished with {} quotes.", count),
+						e -> LOGGER.error("Scheduled quote import failed.", e));
+	}
+
+	public Mono<Long> importDailyQuotes(LocalDate runDay) {
+		LOGGER.info("importDailyQuotes() called for run: {}", runDay);
+		return this.importJobRepository.deleteByRunDayBefore(runDay.minusDays(JOB_RETENTION_DAYS))
+				.then(this.importJobRepository.findFirstByRunDay(runDay).map(job -> 0L)
+						.switchIfEmpty(Mono.defer(() -> this.createJobs(runDay))))
+				.then(this.runJobs(runDay));
+	}
+
+	private Mono<Long> createJobs(LocalDate runDay) {
+		return this.portfolioToSymbolRepository.findAll().filter(ptsEntity -> ptsEntity.getRemovedAt() == null)
+				.map(PortfolioToSymbolEntity::getSymbolId).collect(Collectors.toSet())
+				.flatMapMany(heldSymbolIds -> this.symbolRepository.findAll()
+						.filter(symbolEntity -> this.findQuoteSource(symbolEntity)
+								.filter(this.tokenBuckets::containsKey).isPresent())
+						.map(symbolEntity -> new ImportJobEntity(null, symbolEntity.getId(), symbolEntity.getSymbol(),
+								symbolEntity.getSource(), heldSymbolIds.contains(symbolEntity.getId())
+										? PORTFOLIO_PRIORITY
+										: DEFAULT_PRIORITY,
+								JobState.QUEUED, runDay)))
+				.as(jobs -> this.importJobRepository.saveAll(jobs)).count()
+				.doOnNext(count -> LOGGER.info("{} import jobs created for run: {}", count, runDay));
+	}
+
+	private Mono<Long> runJobs(LocalDate runDay) {
+		return Mono.defer(() -> {
+			if (!this.running.compareAndSet(false, true)) {
+				// the jobs of the run are persisted, they run after the current run
+				this.queuedRunDays.add(runDay);
+				LOGGER.info("Quote import is already running, run {} queued.", runDay);
+				return Mono.just(0L);
+			}
+			final Map<Long, LocalDate> changedDayBySymbolId = new ConcurrentHashMap<>();
+			return this.importJobRepository.findOpenByRunDay(runDay, this.maxAttempts)
+					.groupBy(job -> this.findQuoteSource(job.getSource()).orElse(QuoteSource.PORTFOLIO))
+					.filter(group -> this.tokenBuckets.containsKey(group.key()))
+					.flatMap(group -> group.collect(() -> new PriorityQueue<>(JOB_ORDER), PriorityQueue::add)
+							.flatMapMany(queue -> this.runJobs(group.key(), queue, changedDayBySymbolId)))
+					.reduce(0L, Long::sum)
+					.flatMap(count -> this.portfolioRefreshService.refreshPortfolios(changedDayBySymbolId)
+							.doOnNext(portfolios -> this.evictPortfolioRisks(changedDayBySymbolId))
+							.thenReturn(count))
+					.doFinally(signal -> {
+						this.running.set(false);
+						this.runQueuedJobs();
+					});
+		});
+	}
+
+	private void runQueuedJobs() {
+		LocalDate runDay = this.queuedRunDays.pollFirst();
+		if (runDay != null) {
+			this.runJobs(runDay).subscribe(
+					count -> LOGGER.info("Queued quote import {} finished with {} quotes.", runDay, count),
+					e -> LOGGER.error("Queued quote import {} failed.", runDay, e));
+		}
+	}
+
+	private Flux<Long> runJobs(QuoteSource quoteSource, PriorityQueue<ImportJobEntity> queue,
+			Map<Long, LocalDate> changedDayBySymbolId) {
+		LOGGER.info("{} import jobs queued for {}.", queue.size(), quoteSource);
+		final TokenBucket tokenBucket = this.tokenBuckets.get(quoteSource);
+		return Flux.<ImportJobEntity>generate(sink -> {
+			ImportJobEntity job = queue.poll();
+			if (job == null) {
+				sink.complete();
+			} else {
+				sink.next(job);
+			}
+		}).flatMap(job -> this.runJob(job, tokenBucket, changedDayBySymbolId), this.concurrencies.get(quoteSource),
+				1);
+	}
+
+	private Mono<Long> runJob(ImportJobEntity job, TokenBucket tokenBucket,
+			Map<Long, LocalDate> changedDayBySymbolId) {
+		return tokenBucket.acquire().then(Mono.defer(() -> this.importJob(job, changedDayBySymbolId)))
+				.onErrorResume(e -> this.retryJob(job, tokenBucket, changedDayBySymbolId, e));
+	}
+
+	private Mono<Long> retryJob(ImportJobEntity job, TokenBucket tokenBucket,
+			Map<Long, LocalDate> changedDayBySymbolId, Throwable error) {
+		LOGGER.warn("Import job failed: {}", job, error);
+		if (job.getAttempts() >= this.maxAttempts) {
+			return this.updateJobState(job, JobState.FAILED).thenReturn(0L);
+		}
+		// the retry keeps the slot of the source, the backoff doubles per attempt
+		Duration backoff = Duration.ofMillis(this.retryMinBackoffMs << Math.min(job.getAttempts() - 1, 10));
+		return this.updateJobState(job, JobState.FAILED).then(Mono.delay(backoff))
+				.then(Mono.defer(() -> this.runJob(job, tokenBucket, changedDayBySymbolId)));
+	}
+
+	private Mono<Long> importJob(ImportJobEntity job, Map<Long, LocalDate> changedDayBySymbolId) {
+		job.setAttempts(job.getAttempts() == null ? 1 : job.getAttempts() + 1);
+		return this.updateJobState(job, JobState.RUNNING).flatMap(myJob -> this.findChangedDay(myJob)
+				.flatMap(changedDay -> this.quoteImportService.importUpdateDailyQuotes(myJob.getSymbol())
+						.doOnNext(count -> {
+							if (count > 0L) {
+								changedDayBySymbolId.put(myJob.getSymbolId(), changedDay);
+							}
+						})))
+				.defaultIfEmpty(0L).flatMap(count -> this.updateJobState(job, JobState.DONE).thenReturn(count));
+	}
+
+	private void evictPortfolioRisks(Map<Long, LocalDate> changedDayBySymbolId) {
+		// new index quotes change the figures of every portfolio
+		if (!changedDayBySymbolId.isEmpty()) {
+			this.portfolioRiskService.evictAll();
+		}
+	}
+
+	private Mono<LocalDate> findChangedDay(ImportJobEntity job) {
+		// the import starts with the last imported day, without a watermark the whole history is new
+		return this.importWatermarkRepository.findBySymbolId(job.getSymbolId())
+				.flatMap(watermark -> Mono.justOrEmpty(watermark.getLastDay()))
+				.defaultIfEmpty(PortfolioCalculationService.FIRST_DAY);
+	}
+
+	private Mono<ImportJobEntity> updateJobState(ImportJobEntity job, JobState jobState) {
+		job.setState(jobState.toString());
+		job.setUpdatedAt(LocalDateTime.now());
+		return this.importJobRepository.save(job);
+	}
+
+	private Optional<QuoteSource> findQuoteSource(SymbolEntity symbolEntity) {
+		return this.findQuoteSource(symbolEntity.getSource());
+	}
+
+	private Optional<QuoteSource> findQuoteSource(String source) {
+		return Stream.of(QuoteSource.values()).filter(quoteSource -> quoteSource.toString().equals(source))
+				.findFirst();
+	}
+}
@@ -12,47 +12,46 @@
  */
 package ch.xxx.manager.service;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashMap;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
-import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import ch.xxx.manager.connector.AlphavatageConnector;
+import ch.xxx.manager.connector.ConnectorUtils;
+import ch.xxx.manager.connector.QuoteParser;
 import ch.xxx.manager.connector.YahooConnector;
 import ch.xxx.manager.dto.DailyFxQuoteImportDto;
 import ch.xxx.manager.dto.DailyFxWrapperImportDto;
 import ch.xxx.manager.dto.DailyQuoteImportDto;
-import ch.xxx.manager.dto.DailyWrapperImportDto;
 import ch.xxx.manager.dto.HkDailyQuoteImportDto;
-import ch.xxx.manager.dto.IntraDayMetaDataImportDto;
 import ch.xxx.manager.dto.IntraDayQuoteImportDto;
-import ch.xxx.manager.dto.IntraDayWrapperImportDto;
 import ch.xxx.manager.entity.CurrencyEntity;
 import ch.xxx.manager.entity.DailyQuoteEntity;
+import ch.xxx.manager.entity.ImportWatermarkEntity;
 import ch.xxx.manager.entity.IntraDayQuoteEntity;
 import ch.xxx.manager.entity.SymbolEntity;
 import ch.xxx.manager.entity.SymbolEntity.QuoteSource;
 import ch.xxx.manager.entity.SymbolEntity.SymbolCurrency;
+import ch.xxx.manager.metrics.ImportMetrics;
+import ch.xxx.manager.metrics.ImportMetrics.ImportStage;
 import ch.xxx.manager.repository.CurrencyRepository;
 import ch.xxx.manager.repository.DailyQuoteRepository;
-import ch.xxx.manager.repository.IntraDayQuoteRepository;
+import ch.xxx.manager.repository.ImportWatermarkRepository;
+import ch.xxx.manager.repository.QuoteBulkRepository;
 import ch.xxx.manager.repository.SymbolRepository;
+import ch.xxx.manager.service.FxRateIndex.FxSeries;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -60,6 +59,9 @@ import reactor.core.publisher.Mono;
 @Transactional
 public class QuoteImportService {
 	private static final Logger LOGGER = LoggerFactory.getLogger(QuoteImportService.class);
+	// the compact Alphavantage series contains the last 100 trading days
+	private static final long COMPACT_SERIES_DAYS = 140L;
+	private static final String FX_EXCHANGE = "FX";
 	@Autowired
 	private AlphavatageConnector alphavatageConnector;
 	@Autowired
@@ -67,109 +69,134 @@ public class QuoteImportService {
 	@Autowired
 	private DailyQuoteRepository dailyQuoteRepository;
 	@Autowired
-	private IntraDayQuoteRepository intraDayQuoteRepository;
-	@Autowired
 	private SymbolRepository symbolRepository;
 	@Autowired
 	private CurrencyRepository currencyRepository;
-
-	@Scheduled(cron = "0 0 2 * * ?")
-	public void scheduledImporter() {
-
-	}
+	@Autowired
+	private QuoteBulkRepository quoteBulkRepository;
+	@Autowired
+	private ImportWatermarkRepository importWatermarkRepository;
+	@Autowired
+	private FxRateIndex fxRateIndex;
+	@Autowired
+	private IndexSeriesCache indexSeriesCache;
+	@Autowired
+	private IntraDayQuoteRetentionService intraDayQuoteRetentionService;
+	@Autowired
+	private PortfolioRiskService portfolioRiskService;
+	@Autowired
+	private ImportMetrics importMetrics;
 
 	public Mono<Long> importIntraDayQuotes(String symbol) {
-		IntraDayWrapperImportDto intraDayWrapperImportDto = new IntraDayWrapperImportDto();
-		intraDayWrapperImportDto.setDailyQuotes(new HashMap<String, IntraDayQuoteImportDto>());
-		intraDayWrapperImportDto.setMetaData(new IntraDayMetaDataImportDto());
-
 		LOGGER.info("importIntraDayQuotes() called for symbol: {}", symbol);
 		return this.symbolRepository.findBySymbolSingle(symbol.toLowerCase())
-				.flatMap(symbolEntity -> (QuoteSource.ALPHAVANTAGE.toString().equals(symbolEntity.getSource())
-						? this.alphavatageConnector.getTimeseriesIntraDay(symbol)
-						: Mono.just(intraDayWrapperImportDto)).flatMap(wrapper -> this.convert(symbolEntity, wrapper))
-								.flatMapMany(values -> this.saveAllIntraDayQuotes(values)).count()
-								.doAfterTerminate(() -> this.intraDayQuoteRepository
-										.findBySymbolId(symbolEntity.getId())
-										.groupBy(intraDayQuote -> intraDayQuote.getLocalDateTime().toLocalDate())
-										.flatMap(group -> group.collectList())
-										.map(groupList -> this.createIntraDayQuoteMap(groupList))
-										.map(quotesMap -> this.deleteIntraDayQuotes(this.filterNewestDay(quotesMap)))
-										.subscribe()));
+				.flatMap(symbolEntity -> this.importIntraDayQuotes(symbol, symbolEntity));
 	}
 
-	private List<IntraDayQuoteEntity> filterNewestDay(Map<LocalDate, List<IntraDayQuoteEntity>> quotesMap) {
-		LocalDate max = quotesMap.keySet().stream().max(LocalDate::compareTo).get();
-		quotesMap.remove(max);
-		return quotesMap.values().stream().reduce(new ArrayList<IntraDayQuoteEntity>(), (list, entityList) -> {
-			list.addAll(entityList);
-			return list;
-		});
+	private Mono<Long> importIntraDayQuotes(String symbol, SymbolEntity symbolEntity) {
+		final String exchange = ConnectorUtils.findExchange(symbolEntity.getSymbol());
+		Flux<Entry<String, IntraDayQuoteImportDto>> importDtos = QuoteSource.ALPHAVANTAGE.toString()
+				.equals(symbolEntity.getSource()) ? this.alphavatageConnector.getTimeseriesIntraDay(symbol)
+						: Flux.empty();
+		return this.importMetrics.recordRun(
+				importDtos.map(entry -> this.convert(symbolEntity, entry.getKey(), entry.getValue()))
+						.as(quotes -> this.recordConvert(quotes, symbolEntity))
+						.as(quotes -> this.importMetrics.recordPersist(this.saveAllIntraDayQuotes(quotes),
+								symbolEntity.getSource(), exchange))
+						.flatMap(count -> this.intraDayQuoteRetentionService.deleteOldQuotes(symbolEntity)
+								.thenReturn(count)),
+				"intraday " + symbolEntity.getSymbol(), symbolEntity.getSource(), exchange);
+	}
 
+	public Mono<Long> importDailyQuoteHistory(String symbol) {
+		LOGGER.info("importQuoteHistory() called for symbol: {}", symbol);
+		return this.fxRateIndex.getIndex()
+				.flatMap(fxIndex -> this.symbolRepository.findBySymbolSingle(symbol.toLowerCase())
+						.flatMap(symbolEntity -> this.findImportWatermark(symbolEntity)
+								.flatMap(watermark -> this.importDailyQuotes(symbol, fxIndex, symbolEntity, watermark,
+										Optional.empty()))));
 	}
 
-	private Map<LocalDate, List<IntraDayQuoteEntity>> createIntraDayQuoteMap(List<IntraDayQuoteEntity> entities) {
-		Map<LocalDate, List<IntraDayQuoteEntity>> myMap = new HashMap<>();
-		myMap.put(entities.get(0).getLocalDateTime().toLocalDate(), entities);
-		return myMap;
+	public Mono<Long> importUpdateDailyQuotes(String symbol) {
+		LOGGER.info("importNewDailyQuotes() called for symbol: {}", symbol);
+		return this.fxRateIndex.getIndex()
+				.flatMap(fxIndex -> this.symbolRepository.findBySymbolSingle(symbol.toLowerCase())
+						.flatMap(symbolEntity -> this.findImportWatermark(symbolEntity)
+								.flatMap(watermark -> this.importDailyQuotes(symbol, fxIndex, symbolEntity, watermark,
+										Optional.ofNullable(watermark.getLastDay())))));
 	}
 
-	public Mono<Long> importDailyQuoteHistory(String symbol) {
-		LOGGER.info("importQuoteHistory() called for symbol: {}", symbol);
-		Map<LocalDate, Collection<CurrencyEntity>> currencyMap = this.createCurrencyMap();
-		return this.symbolRepository.findBySymbolSingle(symbol.toLowerCase())
-				.flatMap(symbolEntity -> this.customImport(symbol, currencyMap, symbolEntity, List.of())
-						.flatMapMany(value -> this.saveAllDailyQuotes(value)).count());
+	private Mono<ImportWatermarkEntity> findImportWatermark(SymbolEntity symbolEntity) {
+		return this.importWatermarkRepository.findBySymbolId(symbolEntity.getId())
+				.switchIfEmpty(Mono.defer(() -> this.dailyQuoteRepository.findNewestBySymbolId(symbolEntity.getId())
+						.map(quote -> quote.getLocalDay()).map(Optional::of).defaultIfEmpty(Optional.empty())
+						.map(lastDayOpt -> new ImportWatermarkEntity(null, symbolEntity.getId(),
+								symbolEntity.getSource(), lastDayOpt.orElse(null), null))));
 	}
 
-	private Mono<? extends List<DailyQuoteEntity>> customImport(String symbol,
-			Map<LocalDate, Collection<CurrencyEntity>> currencyMap, SymbolEntity symbolEntity,
-			List<DailyQuoteEntity> entities) {
-		if (QuoteSource.ALPHAVANTAGE.toString().equals(symbolEntity.getSource())) {
-			return this.alphavantageImport(symbol, currencyMap, symbolEntity, List.of());
-		} else if (QuoteSource.YAHOO.toString().equals(symbolEntity.getSource())) {
-			return this.yahooImport(symbol, currencyMap, symbolEntity, List.of());
+	private Mono<Long> importDailyQuotes(String symbol, FxRateIndex fxIndex,
+			SymbolEntity symbolEntity, ImportWatermarkEntity watermark, Optional<LocalDate> lastDayOpt) {
+		final String exchange = ConnectorUtils.findExchange(symbolEntity.getSymbol());
+		return this.importMetrics.recordRun(Mono.defer(() -> {
+			final AtomicReference<LocalDate> newestDay = new AtomicReference<>(watermark.getLastDay());
+			return this.customImport(symbol, fxIndex, symbolEntity, lastDayOpt)
+					.as(quotes -> this.recordConvert(quotes, symbolEntity))
+					.doOnNext(quote -> newestDay.accumulateAndGet(quote.getLocalDay(),
+							(day1, day2) -> day1 == null || day1.isBefore(day2) ? day2 : day1))
+					.as(quotes -> this.importMetrics.recordPersist(this.saveAllDailyQuotes(quotes),
+							symbolEntity.getSource(), exchange))
+					.flatMap(count -> this.updateImportWatermark(watermark, symbolEntity, newestDay.get())
+							.thenReturn(count))
+					.doOnNext(count -> this.evictCaches(symbolEntity, count));
+		}), "daily " + symbolEntity.getSymbol(), symbolEntity.getSource(), exchange);
+	}
+
+	private void evictCaches(SymbolEntity symbolEntity, long count) {
+		this.indexSeriesCache.evict(symbolEntity.getSymbol());
+		// the symbol can be held or be an index of the figures of every portfolio
+		if (count > 0L) {
+			this.portfolioRiskService.evictAll();
 		}
-		return Mono.just(List.of());
 	}
 
-	public Mono<Long> importUpdateDailyQuotes(String symbol) {
-		LOGGER.info("importNewDailyQuotes() called for symbol: {}", symbol);
-		Map<LocalDate, Collection<CurrencyEntity>> currencyMap = this.createCurrencyMap();
-		return this.symbolRepository.findBySymbolSingle(symbol.toLowerCase())
-				.flatMap(symbolEntity -> this.dailyQuoteRepository.findBySymbolId(symbolEntity.getId()).collectList()
-						.flatMap(entities -> this.customImport(symbol, currencyMap, symbolEntity, entities))
-						.flatMapMany(value -> this.saveAllDailyQuotes(value)).count());
+	private <T> Flux<T> recordConvert(Flux<T> quotes, SymbolEntity symbolEntity) {
+		return this.importMetrics.recordStage(quotes, ImportStage.CONVERT, symbolEntity.getSource(),
+				ConnectorUtils.findExchange(symbolEntity.getSymbol()));
 	}
 
-	private Mono<? extends List<DailyQuoteEntity>> yahooImport(String symbol,
-			Map<LocalDate, Collection<CurrencyEntity>> currencyMap, SymbolEntity symbolEntity,
-			List<DailyQuoteEntity> entities) {
-		return entities.isEmpty()
-				? this.yahooConnector.getTimeseriesDailyHistory(symbol)
-						.flatMap(importDtos -> this.convert(symbolEntity, importDtos, currencyMap))
-				: this.yahooConnector.getTimeseriesDailyHistory(symbol)
-						.flatMap(
-								importDtos -> this.convert(symbolEntity, importDtos, currencyMap))
-						.map(dtos -> dtos.stream().filter(myDto -> 1 > entities.get(entities.size() - 1).getLocalDay()
-								.compareTo(myDto.getLocalDay())).collect(Collectors.toList()));
+	private Mono<ImportWatermarkEntity> updateImportWatermark(ImportWatermarkEntity watermark,
+			SymbolEntity symbolEntity, LocalDate newestDay) {
+		watermark.setLastDay(newestDay);
+		watermark.setSource(symbolEntity.getSource());
+		watermark.setLastRun(LocalDateTime.now());
+		return this.importWatermarkRepository.save(watermark);
 	}
 
-	private Mono<List<DailyQuoteEntity>> convert(SymbolEntity symbolEntity, List<HkDailyQuoteImportDto> importDtos,
-			Map<LocalDate, Collection<CurrencyEntity>> currencyMap) {
-		List<DailyQuoteEntity> quotes = importDtos.stream()
+	private Flux<DailyQuoteEntity> customImport(String symbol,
+			FxRateIndex fxIndex, SymbolEntity symbolEntity,
+			Optional<LocalDate> lastDayOpt) {
+		if (QuoteSource.ALPHAVANTAGE.toString().equals(symbolEntity.getSource())) {
+			return this.alphavantageImport(symbol, fxIndex, symbolEntity, lastDayOpt);
+		} else if (QuoteSource.YAHOO.toString().equals(symbolEntity.getSource())) {
+			return this.yahooImport(symbol, fxIndex, symbolEntity, lastDayOpt);
+		}
+		return Flux.empty();
+	}
+
+	private Flux<DailyQuoteEntity> yahooImport(String symbol,
+			FxRateIndex fxIndex, SymbolEntity symbolEntity,
+			Optional<LocalDate> lastDayOpt) {
+		LocalDate fromDay = lastDayOpt.map(lastDay -> lastDay.plusDays(1)).orElse(LocalDate.now().minusYears(10));
+		final FxSeries fxSeries = fxIndex.findSeries(SymbolCurrency.EUR.toString(), symbolEntity.getCurr());
+		return this.yahooConnector.getTimeseriesDailyHistory(symbol, fromDay)
 				.filter(myImportDto -> myImportDto.getAdjClose() != null && myImportDto.getVolume() != null)
-				.map(importDto -> this.convert(symbolEntity, importDto, currencyMap)).collect(Collectors.toList());
-		return Mono.just(quotes);
+				.map(importDto -> this.convert(symbolEntity, importDto, fxSeries))
+				.filter(myEntity -> this.isNewQuote(myEntity, lastDayOpt));
 	}
 
 	private DailyQuoteEntity convert(SymbolEntity symbolEntity, HkDailyQuoteImportDto importDto,
-			Map<LocalDate, Collection<CurrencyEntity>> currencyMap) {
-		Optional<Long> currencyIdOpt = currencyMap.get(importDto.getDate()) == null ? Optional.empty()
-				: currencyMap.get(importDto.getDate()).stream()
-						.filter(entity -> entity.getTo_curr() == null || (entity.getTo_curr() != null
-								&& entity.getTo_curr().equalsIgnoreCase(symbolEntity.getCurr())))
-						.flatMap(entity -> Stream.of(entity.getId())).findFirst();
+			FxSeries fxSeries) {
+		Optional<Long> currencyIdOpt = fxSeries.findCurrencyId(importDto.getDate());
 //		LOGGER.info(importDto.toString());
 		DailyQuoteEntity entity = new DailyQuoteEntity(null, symbolEntity.getSymbol(), importDto.getOpen(),
 				importDto.getHigh(), importDto.getLow(), importDto.getAdjClose(),
@@ -178,104 +205,77 @@ public class QuoteImportService {
 		return entity;
 	}
 
-	private Mono<? extends List<DailyQuoteEntity>> alphavantageImport(String symbol,
-			Map<LocalDate, Collection<CurrencyEntity>> currencyMap, SymbolEntity symbolEntity,
-			List<DailyQuoteEntity> entities) {
-		return entities.isEmpty()
-				? this.alphavatageConnector.getTimeseriesDailyHistory(symbol, true)
-						.flatMap(wrapper -> this.convert(symbolEntity, wrapper, currencyMap))
-				: this.alphavatageConnector.getTimeseriesDailyHistory(symbol, false)
-						.flatMap(
-								wrapper -> this.convert(symbolEntity, wrapper, currencyMap))
-						.map(dtos -> dtos.stream().filter(myDto -> 1 > entities.get(entities.size() - 1).getLocalDay()
-								.compareTo(myDto.getLocalDay())).collect(Collectors.toList()));
+	private Flux<DailyQuoteEntity> alphavantageImport(String symbol,
+			FxRateIndex fxIndex, SymbolEntity symbolEntity,
+			Optional<LocalDate> lastDayOpt) {
+		boolean fullSeries = lastDayOpt
+				.map(lastDay -> ChronoUnit.DAYS.between(lastDay, LocalDate.now()) > COMPACT_SERIES_DAYS).orElse(true);
+		final FxSeries fxSeries = fxIndex.findSeries(SymbolCurrency.EUR.toString(), symbolEntity.getCurr());
+		return this.alphavatageConnector.getTimeseriesDailyHistory(symbol, fullSeries)
+				.map(entry -> this.convert(symbolEntity, entry.getKey(), entry.getValue(), fxSeries))
+				.filter(myEntity -> this.isNewQuote(myEntity, lastDayOpt));
 	}
 
-	public Mono<Long> importFxDailyQuoteHistory(String to_currency) {
-		LOGGER.info("importFxDailyQuoteHistory() called to currency: {}", to_currency);
-		return this.currencyRepository.findAll().collectMultimap(entity -> entity.getLocalDay(), entity -> entity)
-				.flatMap(currencyMap -> this.alphavatageConnector.getFxTimeseriesDailyHistory(to_currency, true)
-						.flatMap(wrapper -> this.currencyRepository.saveAll(this.convert(wrapper, currencyMap))
-								.count()));
+	private boolean isNewQuote(DailyQuoteEntity entity, Optional<LocalDate> lastDayOpt) {
+		return lastDayOpt.map(lastDay -> lastDay.isBefore(entity.getLocalDay())).orElse(true);
 	}
 
-	private Map<LocalDate, Collection<CurrencyEntity>> createCurrencyMap() {
-		return this.currencyRepository.findAll().collectMultimap(grouped -> grouped.getLocalDay(), grouped -> grouped)
-				.block();
+	public Mono<Long> importFxDailyQuoteHistory(String to_currency) {
+		LOGGER.info("importFxDailyQuoteHistory() called to currency: {}", to_currency);
+		return this.importMetrics.recordRun(this.fxRateIndex.getIndex()
+				.flatMap(fxIndex -> this.alphavatageConnector.getFxTimeseriesDailyHistory(to_currency, true)
+						.flatMap(wrapper -> this.currencyRepository.saveAll(this.convert(wrapper, fxIndex))
+								.collectList())
+						.map(entities -> {
+							fxIndex.addAll(entities);
+							return Long.valueOf(entities.size());
+						})),
+				"fx " + SymbolCurrency.EUR + "/" + to_currency, QuoteSource.ALPHAVANTAGE.toString(), FX_EXCHANGE);
 	}
 
-	private List<CurrencyEntity> convert(DailyFxWrapperImportDto wrapperDto,
-			Map<LocalDate, Collection<CurrencyEntity>> currencyMap) {
+	private List<CurrencyEntity> convert(DailyFxWrapperImportDto wrapperDto, FxRateIndex fxIndex) {
 //		LOGGER.info(wrapperDto.getDailyQuotes().get(LocalDate.of(2014, 12, 29)).getClose());
 		return wrapperDto.getDailyQuotes().entrySet().stream().flatMap(
 				entry -> Stream.of(this.convert(entry, SymbolCurrency.valueOf(wrapperDto.getMetadata().getFromSymbol()),
 						SymbolCurrency.valueOf(wrapperDto.getMetadata().getToSymbol()))))
-				.filter(entity -> currencyMap.get(entity.getLocalDay()) == null
-						|| currencyMap.get(entity.getLocalDay()).stream()
-								.anyMatch(mapEntity -> SymbolCurrency.valueOf(entity.getTo_curr())
-										.equals(SymbolCurrency.valueOf(mapEntity.getTo_curr()))))
+				.filter(entity -> !fxIndex.hasRate(entity.getFrom_curr(), entity.getTo_curr(), entity.getLocalDay()))
 				.collect(Collectors.toList());
 	}
 
 	private CurrencyEntity convert(Entry<String, DailyFxQuoteImportDto> entry, SymbolCurrency from_curr,
 			SymbolCurrency to_curr) {
-		return new CurrencyEntity(LocalDate.parse(entry.getKey(), DateTimeFormatter.ofPattern("yyyy-MM-dd")),
-				from_curr.toString(), to_curr.toString(), new BigDecimal(entry.getValue().getOpen()),
-				new BigDecimal(entry.getValue().getHigh()), new BigDecimal(entry.getValue().getLow()),
-				new BigDecimal(entry.getValue().getClose()));
-	}
-
-	private Mono<List<IntraDayQuoteEntity>> convert(SymbolEntity symbolEntity, IntraDayWrapperImportDto wrapper) {
-		List<IntraDayQuoteEntity> quotes = wrapper.getDailyQuotes().entrySet().stream()
-				.map(entry -> this.convert(symbolEntity, entry.getKey(), entry.getValue()))
-				.collect(Collectors.toList());
-		return Mono.just(quotes);
+		return new CurrencyEntity(QuoteParser.parseDate(entry.getKey()), from_curr.toString(), to_curr.toString(),
+				QuoteParser.parseDecimal(entry.getValue().getOpen()), QuoteParser.parseDecimal(entry.getValue().getHigh()),
+				QuoteParser.parseDecimal(entry.getValue().getLow()),
+				QuoteParser.parseDecimal(entry.getValue().getClose()));
 	}
 
 	private IntraDayQuoteEntity convert(SymbolEntity symbolEntity, String dateStr, IntraDayQuoteImportDto dto) {
 		IntraDayQuoteEntity entity = new IntraDayQuoteEntity(null, symbolEntity.getSymbol(),
-				new BigDecimal(dto.getOpen()), new BigDecimal(dto.getHigh()), new BigDecimal(dto.getLow()),
-				new BigDecimal(dto.getClose()), Long.parseLong(dto.getVolume()),
-				LocalDateTime.parse(dateStr, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")), symbolEntity.getId());
+				QuoteParser.parseDecimal(dto.getOpen()), QuoteParser.parseDecimal(dto.getHigh()),
+				QuoteParser.parseDecimal(dto.getLow()), QuoteParser.parseDecimal(dto.getClose()),
+				QuoteParser.parseLong(dto.getVolume()), QuoteParser.parseDateTime(dateStr), symbolEntity.getId());
 		return entity;
 	}
 
-	private Flux<IntraDayQuoteEntity> saveAllIntraDayQuotes(Collection<IntraDayQuoteEntity> entities) {
-		LOGGER.info("importIntraDayQuotes() {} to import", entities.size());
-		return this.intraDayQuoteRepository.saveAll(entities);
-	}
-
-	private Mono<List<DailyQuoteEntity>> convert(SymbolEntity symbolEntity, DailyWrapperImportDto wrapper,
-			Map<LocalDate, Collection<CurrencyEntity>> currencyMap) {
-		List<DailyQuoteEntity> quotes = wrapper.getDailyQuotes().entrySet().stream()
-				.map(entry -> this.convert(symbolEntity, entry.getKey(), entry.getValue(), currencyMap))
-				.collect(Collectors.toList());
-		return Mono.just(quotes);
+	private Mono<Long> saveAllIntraDayQuotes(Flux<IntraDayQuoteEntity> entities) {
+		return this.quoteBulkRepository.insertIntraDayQuotes(entities)
+				.doOnNext(count -> LOGGER.info("importIntraDayQuotes() {} imported", count));
 	}
 
 	private DailyQuoteEntity convert(SymbolEntity symbolEntity, String dateStr, DailyQuoteImportDto dto,
-			Map<LocalDate, Collection<CurrencyEntity>> currencyMap) {
-		Optional<Long> currencyIdOpt = currencyMap
-				.get(LocalDate.parse(dateStr, DateTimeFormatter.ISO_LOCAL_DATE)) == null
-						? Optional.empty()
-						: currencyMap.get(LocalDate.parse(dateStr, DateTimeFormatter.ISO_LOCAL_DATE)).stream()
-								.filter(entity -> entity.getTo_curr() == null || (entity.getTo_curr() != null
-										&& entity.getTo_curr().equalsIgnoreCase(symbolEntity.getCurr())))
-								.flatMap(entity -> Stream.of(entity.getId())).findFirst();
-		DailyQuoteEntity entity = new DailyQuoteEntity(null, symbolEntity.getSymbol(), new BigDecimal(dto.getOpen()),
-				new BigDecimal(dto.getHigh()), new BigDecimal(dto.getLow()), new BigDecimal(dto.getAjustedClose()),
-				Long.parseLong(dto.getVolume()), LocalDate.parse(dateStr, DateTimeFormatter.ISO_LOCAL_DATE),
-				symbolEntity.getId(), currencyIdOpt.orElse(null));
+			FxSeries fxSeries) {
+		LocalDate localDay = QuoteParser.parseDate(dateStr);
+		Optional<Long> currencyIdOpt = fxSeries.findCurrencyId(localDay);
+		DailyQuoteEntity entity = new DailyQuoteEntity(null, symbolEntity.getSymbol(),
+				QuoteParser.parseDecimal(dto.getOpen()), QuoteParser.parseDecimal(dto.getHigh()),
+				QuoteParser.parseDecimal(dto.getLow()), QuoteParser.parseDecimal(dto.getAjustedClose()),
+				QuoteParser.parseLong(dto.getVolume()), localDay, symbolEntity.getId(), currencyIdOpt.orElse(null));
 		return entity;
 	}
 
-	private Flux<DailyQuoteEntity> saveAllDailyQuotes(Collection<DailyQuoteEntity> entities) {
-		LOGGER.info("importDailyQuotes() {} to import", entities.size());
-		return this.dailyQuoteRepository.saveAll(entities);
-	}
-
-	private Mono<Void> deleteIntraDayQuotes(Collection<IntraDayQuoteEntity> entities) {
-		LOGGER.info("deleteIntraDayQuotes() {} to delete", entities.size());
-		return !entities.isEmpty() ? this.intraDayQuoteRepository.deleteAll(entities) : Mono.empty();
+	private Mono<Long> saveAllDailyQuotes(Flux<DailyQuoteEntity> entities) {
+		return this.quoteBulkRepository.upsertDailyQuotes(entities)
+				.doOnNext(count -> LOGGER.info("importDailyQuotes() {} imported", count));
 	}
 }
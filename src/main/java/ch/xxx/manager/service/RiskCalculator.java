@@ -0,0 +1,153 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ch.xxx.manager.dto.IndexRiskDto;
+import ch.xxx.manager.dto.PortfolioRiskDto;
+
+/**
+ * Calculates the risk figures of a value series in one pass over its days. The
+ * daily returns are accumulated with Welford's algorithm, the index values are
+ * looked up as of the portfolio days with a cursor per index. A return that
+ * spans a composition change of the portfolio is skipped, the value jump of an
+ * added or removed symbol is no market movement. The indexes are (name, symbol,
+ * series) tuples.
+ */
+public class RiskCalculator {
+	public static final int TRADING_DAYS = 252;
+
+	public static PortfolioRiskDto calculate(TimeSeries portfolio, int[] changeDays,
+			List<Tuple3<String, String, TimeSeries>> indexes, double riskFreeRate) {
+		List<TimeSeries> indexSeries = new ArrayList<>(indexes.size());
+		indexes.forEach(index -> indexSeries.add(index.getC()));
+		int[] cursors = new int[indexSeries.size()];
+		long[] previousIndexValues = new long[indexSeries.size()];
+		CoMoments[] indexMoments = new CoMoments[indexSeries.size()];
+		for (int i = 0; i < indexMoments.length; i++) {
+			cursors[i] = -1;
+			indexMoments[i] = new CoMoments();
+		}
+		Moments moments = new Moments();
+		int changeCursor = 0;
+		long peak = 0L;
+		int peakIndex = -1;
+		double maxDrawdown = 0.0;
+		int drawdownPeakIndex = -1;
+		int drawdownTroughIndex = -1;
+		for (int day = 0; day < portfolio.size(); day++) {
+			int epochDay = portfolio.getEpochDay(day);
+			long value = portfolio.getValue(day);
+			boolean changed = false;
+			while (changeCursor < changeDays.length && changeDays[changeCursor] <= epochDay) {
+				changed = changed || (day > 0 && changeDays[changeCursor] > portfolio.getEpochDay(day - 1));
+				changeCursor++;
+			}
+			if (changed || value <= 0L) {
+				// the drawdown starts again with the new composition
+				peak = value;
+				peakIndex = day;
+			} else if (value > peak) {
+				peak = value;
+				peakIndex = day;
+			} else if (peak > 0L) {
+				double drawdown = (double) value / peak - 1.0;
+				if (drawdown < maxDrawdown) {
+					maxDrawdown = drawdown;
+					drawdownPeakIndex = peakIndex;
+					drawdownTroughIndex = day;
+				}
+			}
+			long previousValue = day > 0 ? portfolio.getValue(day - 1) : 0L;
+			boolean validReturn = !changed && previousValue > 0L && value > 0L;
+			double portfolioReturn = validReturn ? (double) value / previousValue - 1.0 : 0.0;
+			if (validReturn) {
+				moments.add(portfolioReturn);
+			}
+			for (int i = 0; i < cursors.length; i++) {
+				TimeSeries series = indexSeries.get(i);
+				while (cursors[i] + 1 < series.size() && series.getEpochDay(cursors[i] + 1) <= epochDay) {
+					cursors[i]++;
+				}
+				long indexValue = cursors[i] < 0 ? 0L : series.getValue(cursors[i]);
+				if (validReturn && previousIndexValues[i] > 0L && indexValue > 0L) {
+					indexMoments[i].add(portfolioReturn, (double) indexValue / previousIndexValues[i] - 1.0);
+				}
+				previousIndexValues[i] = indexValue;
+			}
+		}
+		PortfolioRiskDto dto = new PortfolioRiskDto();
+		dto.setFromDay(portfolio.size() == 0 ? null : portfolio.getLocalDay(0));
+		dto.setToDay(portfolio.size() == 0 ? null : portfolio.getLocalDay(portfolio.size() - 1));
+		dto.setReturns((int) moments.count);
+		dto.setVolatility(moments.count < 2 ? null : Math.sqrt(moments.variance() * TRADING_DAYS));
+		dto.setSharpeRatio(moments.count < 2 || moments.variance() <= 0.0 ? null
+				: (moments.mean * TRADING_DAYS - riskFreeRate) / Math.sqrt(moments.variance() * TRADING_DAYS));
+		dto.setMaxDrawdown(maxDrawdown);
+		dto.setDrawdownPeakDay(drawdownPeakIndex < 0 ? null : portfolio.getLocalDay(drawdownPeakIndex));
+		dto.setDrawdownTroughDay(drawdownTroughIndex < 0 ? null : portfolio.getLocalDay(drawdownTroughIndex));
+		for (int i = 0; i < indexMoments.length; i++) {
+			dto.getIndexes().add(new IndexRiskDto(indexes.get(i).getA(), indexes.get(i).getB(),
+					(int) indexMoments[i].count, indexMoments[i].beta(), indexMoments[i].correlation()));
+		}
+		return dto;
+	}
+
+	static class Moments {
+		long count;
+		double mean;
+		double m2;
+
+		void add(double x) {
+			this.count++;
+			double delta = x - this.mean;
+			this.mean += delta / this.count;
+			this.m2 += delta * (x - this.mean);
+		}
+
+		double variance() {
+			return this.count < 2 ? 0.0 : this.m2 / (this.count - 1);
+		}
+	}
+
+	static class CoMoments {
+		long count;
+		double meanX;
+		double meanY;
+		double m2X;
+		double m2Y;
+		double cXY;
+
+		void add(double x, double y) {
+			this.count++;
+			double deltaX = x - this.meanX;
+			double deltaY = y - this.meanY;
+			this.meanX += deltaX / this.count;
+			this.meanY += deltaY / this.count;
+			this.m2X += deltaX * (x - this.meanX);
+			this.m2Y += deltaY * (y - this.meanY);
+			this.cXY += deltaX * (y - this.meanY);
+		}
+
+		Double beta() {
+			return this.count < 2 || this.m2Y <= 0.0 ? null : this.cXY / this.m2Y;
+		}
+
+		Double correlation() {
+			return this.count < 2 || this.m2X <= 0.0 || this.m2Y <= 0.0 ? null
+					: this.cXY / Math.sqrt(this.m2X * this.m2Y);
+		}
+	}
+}
@@ -12,20 +12,11 @@
  */
 package ch.xxx.manager.service;
 
-import java.util.Map;
 import java.util.Random;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.Function;
-import java.util.function.Predicate;
 
 public class ServiceUtils {
-	public final static String PORTFOLIO_MARKER = "äüè";
-
-	private final static int SYMBOL_LENGTH = 15;
-
-	public static String generateRandomPortfolioSymbol() {
-		return generateRandomString(SYMBOL_LENGTH - PORTFOLIO_MARKER.length()) + PORTFOLIO_MARKER;
-	}
+	private final static long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+	private final static long FNV_PRIME = 0x100000001b3L;
 
 	public static String generateRandomString(long length) {
 		int leftLimit = 48; // numeral '0'
@@ -36,8 +27,32 @@ public class ServiceUtils {
 				.toString();
 	}
 
-	public static <T> Predicate<T> distinctByKey(Function<? super T, ?> keyExtractor) {
-		Map<Object, Boolean> seen = new ConcurrentHashMap<>();
-		return t -> seen.putIfAbsent(keyExtractor.apply(t), Boolean.TRUE) == null;
+	/**
+	 * 64 bit FNV-1a hash of the chars.
+	 */
+	public static long fnvHash(CharSequence chars) {
+		long hash = FNV_OFFSET_BASIS;
+		for (int i = 0; i < chars.length(); i++) {
+			char c = chars.charAt(i);
+			hash = (hash ^ (c & 0xff)) * FNV_PRIME;
+			hash = (hash ^ (c >>> 8)) * FNV_PRIME;
+		}
+		return hash;
+	}
+
+	/**
+	 * Returns the field with the index of the separated line without splitting
+	 * the whole line, empty if the line has less fields.
+	 */
+	public static String findField(String line, char separator, int index) {
+		int start = 0;
+		for (int field = 0; field < index; field++) {
+			start = line.indexOf(separator, start) + 1;
+			if (start == 0) {
+				return "";
+			}
+		}
+		int end = line.indexOf(separator, start);
+		return line.substring(start, end < 0 ? line.length() : end);
 	}
 }
@@ -12,11 +12,11 @@
  */
 package ch.xxx.manager.service;
 
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Stream;
 
@@ -25,6 +25,7 @@ import javax.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -36,6 +37,8 @@ import ch.xxx.manager.dto.HkSymbolImportDto;
 import ch.xxx.manager.entity.SymbolEntity;
 import ch.xxx.manager.entity.SymbolEntity.QuoteSource;
 import ch.xxx.manager.entity.SymbolEntity.SymbolCurrency;
+import ch.xxx.manager.metrics.ImportMetrics;
+import ch.xxx.manager.metrics.ImportMetrics.ImportStage;
 import ch.xxx.manager.repository.SymbolRepository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -45,6 +48,8 @@ import reactor.core.scheduler.Schedulers;
 @Transactional
 public class SymbolImportService {
 	private static final Logger LOGGER = LoggerFactory.getLogger(SymbolImportService.class);
+	private static final String SYMBOL_SOURCE = "SYMBOLS";
+	private static final int XETRA_EXPECTED_SYMBOLS = 4096;
 	@Autowired
 	private NasdaqConnector nasdaqConnector;
 	@Autowired
@@ -55,15 +60,23 @@ public class SymbolImportService {
 	private XetraConnector xetraConnector;
 	@Autowired
 	private QuoteImportService quoteImportService;
-	private AtomicReference<List<SymbolEntity>> allSymbolEntities = new AtomicReference<List<SymbolEntity>>(
-			new ArrayList<>());
+	@Autowired
+	private ImportMetrics importMetrics;
+	@Autowired
+	private SymbolService symbolService;
+	@Value("${symbol.import.batch-size:500}")
+	private int batchSize;
+	private final AtomicReference<Mono<Map<String, SymbolEntity>>> symbolIndex = new AtomicReference<>();
 
 	@PostConstruct
 	public void init() {
-		this.repository.findAll().collectList().subscribe(symbolEnities -> {
-			this.allSymbolEntities.set(symbolEnities);
-			LOGGER.info("{} symbols updated.", symbolEnities.size());
-		});
+		Mono<Map<String, SymbolEntity>> loadedIndex = this.repository.findAll()
+				.collectMap(entity -> this.symbolKey(entity.getSymbol()), entity -> entity,
+						() -> new ConcurrentHashMap<String, SymbolEntity>())
+				.doOnNext(index -> LOGGER.info("{} symbols updated.", index.size()))
+				.flatMap(index -> this.symbolService.updateSearchIndex(index.values()).thenReturn(index)).cache();
+		this.symbolIndex.set(loadedIndex);
+		loadedIndex.subscribe();
 	}
 
 	@Scheduled(cron = "0 0 1 * * ?")
@@ -78,40 +91,41 @@ public class SymbolImportService {
 	public Mono<Long> importUsSymbols(Flux<String> nasdaq) {
 		LOGGER.info("importUsSymbols() called.");
 		if (nasdaq != null) {
-			return nasdaq.filter(this::filter).flatMap(symbolStr -> this.convert(symbolStr))
-					.flatMap(entity -> this.replaceEntity(entity, Optional.empty())).count()
-					.doAfterTerminate(() -> this.init());
+			return this.upsertSymbols(nasdaq.filter(this::filter).flatMap(symbolStr -> this.convert(symbolStr)));
 		}
-		return this.nasdaqConnector.importSymbols().filter(this::filter).flatMap(symbolStr -> this.convert(symbolStr))
-				.flatMap(entity -> this.replaceEntity(entity, Optional.empty())).count()
-				.doAfterTerminate(() -> this.init());
+		return this.importMetrics.recordRun(this.upsertSymbols(this.importMetrics
+				.recordStage(this.nasdaqConnector.importSymbols(), ImportStage.FETCH, SYMBOL_SOURCE, "US")
+				.filter(this::filter).flatMap(symbolStr -> this.convert(symbolStr))), "us symbols", SYMBOL_SOURCE,
+				"US");
 	}
 
 	public Mono<Long> importHkSymbols(Flux<HkSymbolImportDto> hkex) {
 		LOGGER.info("importHkSymbols() called.");
 		if (hkex != null) {
-			return hkex.filter(this::filter).flatMap(myDto -> this.convert(myDto))
-					.flatMap(entity -> this.replaceEntity(entity, Optional.empty())).count()
-					.doAfterTerminate(() -> this.init());
+			return this.upsertSymbols(hkex.filter(this::filter).flatMap(myDto -> this.convert(myDto)));
 		}
-		return this.hkexConnector.importSymbols().filter(this::filter).flatMap(myDto -> this.convert(myDto))
-				.flatMap(entity -> this.replaceEntity(entity, Optional.empty())).count()
-				.doAfterTerminate(() -> this.init());
+		return this.importMetrics.recordRun(this.upsertSymbols(this.importMetrics
+				.recordStage(this.hkexConnector.importSymbols(), ImportStage.FETCH, SYMBOL_SOURCE, "HKEX")
+				.filter(this::filter).flatMap(myDto -> this.convert(myDto))), "hk symbols", SYMBOL_SOURCE, "HKEX");
 	}
 
 	public Mono<Long> importDeSymbols(Flux<String> xetra) {
 		LOGGER.info("importDeSymbols() called.");
 		if (xetra != null) {
-			return xetra.filter(this::filter).filter(this::filterXetra).flatMap(line -> this.convertXetra(line))
-					.groupBy(SymbolEntity::getSymbol).flatMap(group -> group.reduce((a, b) -> a))
-					.flatMap(entity -> this.replaceEntity(entity, Optional.empty())).count()
-					.doAfterTerminate(() -> this.init());
+			return this.importXetraLines(xetra);
 		}
-		return this.xetraConnector.importXetraSymbols().filter(this::filter).filter(this::filterXetra)
-				.flatMap(line -> this.convertXetra(line)).groupBy(SymbolEntity::getSymbol)
-				.flatMap(group -> group.reduce((a, b) -> a))
-				.flatMap(entity -> this.replaceEntity(entity, Optional.empty())).count()
-				.doAfterTerminate(() -> this.init());
+		return this.importMetrics.recordRun(this.importXetraLines(this.importMetrics
+				.recordStage(this.xetraConnector.importXetraSymbols(), ImportStage.FETCH, SYMBOL_SOURCE, "XETRA")),
+				"de symbols", SYMBOL_SOURCE, "XETRA");
+	}
+
+	private Mono<Long> importXetraLines(Flux<String> xetra) {
+		// the first line of a symbol wins, only the symbol hashes are kept
+		return this.upsertSymbols(Flux.defer(() -> {
+			final LongHashSet importedSymbols = new LongHashSet(XETRA_EXPECTED_SYMBOLS);
+			return xetra.filter(this::filter).filter(this::filterXetra).flatMap(line -> this.convertXetra(line))
+					.filter(entity -> importedSymbols.add(ServiceUtils.fnvHash(entity.getSymbol())));
+		}));
 	}
 
 	public Mono<Long> importReferenceIndexes(Flux<String> symbolStrs) {
@@ -120,50 +134,73 @@ public class SymbolImportService {
 			symbolStrs = Flux.just(ComparisonIndex.SP500.getSymbol(), ComparisonIndex.EUROSTOXX50.getSymbol(),
 					ComparisonIndex.MSCI_CHINA.getSymbol());
 		}
-		final Flux<String> localSymbolStrs = symbolStrs;
-		final Set<String> symbolStrsToImport = new HashSet<>();
-		final List<SymbolEntity> availiableSymbolEntities = new ArrayList<>();
-		return this.repository.findAll().collectList().flux().flatMap(symbolEntities -> {
-			availiableSymbolEntities.addAll(symbolEntities);
-			return localSymbolStrs;
-		}).filter(symbolStr -> Stream.of(ComparisonIndex.values()).map(ComparisonIndex::getSymbol)
-				.anyMatch(indexSymbol -> indexSymbol.equalsIgnoreCase(symbolStr)))
-				.flatMap(indexSymbol -> upsertSymbolEntity(indexSymbol, availiableSymbolEntities)).map(entity -> {
-					symbolStrsToImport.add(entity.getSymbol());
-					return entity;
-				}).count().doAfterTerminate(() -> {
-					this.init();
+		final Set<String> symbolStrsToImport = ConcurrentHashMap.newKeySet();
+		return this.upsertSymbols(symbolStrs
+				.filter(symbolStr -> Stream.of(ComparisonIndex.values()).map(ComparisonIndex::getSymbol)
+						.anyMatch(indexSymbol -> indexSymbol.equalsIgnoreCase(symbolStr)))
+				.map(indexSymbol -> this.createIndexEntity(indexSymbol))
+				.doOnNext(entity -> symbolStrsToImport.add(entity.getSymbol()))).doAfterTerminate(() -> {
 					symbolStrsToImport.forEach(mySymbolStr -> this.quoteImportService
 							.importUpdateDailyQuotes(mySymbolStr).subscribeOn(Schedulers.elastic())
 							.subscribe(value -> LOGGER.info("Indexquotes import done for: {}", mySymbolStr)));
 				});
 	}
 
-	private Mono<SymbolEntity> upsertSymbolEntity(String indexSymbol, List<SymbolEntity> availiableSymbolEntities) {
+	private SymbolEntity createIndexEntity(String indexSymbol) {
 		ComparisonIndex compIndex = Stream.of(ComparisonIndex.values())
 				.filter(index -> index.getSymbol().equalsIgnoreCase(indexSymbol)).findFirst()
 				.orElseThrow(() -> new RuntimeException("Unknown indexSymbol: " + indexSymbol));
-		SymbolEntity symbolEntity = new SymbolEntity(null, compIndex.getSymbol(), compIndex.getName(),
-				compIndex.getCurrency(), compIndex.getSource());
-		return this.replaceEntity(symbolEntity, Optional.of(availiableSymbolEntities));
+		return new SymbolEntity(null, compIndex.getSymbol(), compIndex.getName(), compIndex.getCurrency(),
+				compIndex.getSource());
 	}
 
-	private Mono<SymbolEntity> replaceEntity(SymbolEntity entity,
-			Optional<List<SymbolEntity>> availiableSymbolEntitiesOpt) {
-		return Flux
-				.fromIterable(availiableSymbolEntitiesOpt.isEmpty() ? this.allSymbolEntities.get()
-						: availiableSymbolEntitiesOpt.get())
-				.filter(filterEntity -> filterEntity.getSymbol().toLowerCase().equals(entity.getSymbol().toLowerCase()))
-				.switchIfEmpty(Mono.just(entity)).flatMap(localEntity -> this.updateEntity(localEntity, entity))
-				.flatMap(myEntity -> this.repository.save(myEntity)).single();
+	/**
+	 * Diffs the imported symbols against the case insensitive symbol index in one
+	 * pass and saves the new and changed symbols in batches. The index is updated
+	 * with the saved entities, unchanged symbols are not written. The symbol search
+	 * index is rebuilt if symbols were saved.
+	 * 
+	 * @return the number of saved symbols.
+	 */
+	private Mono<Long> upsertSymbols(Flux<SymbolEntity> importEntities) {
+		return this.symbolIndex.get().flatMap(index -> Flux.defer(() -> {
+			final LongHashSet changedSymbols = new LongHashSet();
+			return importEntities
+					.flatMap(entity -> Mono.justOrEmpty(this.diffEntity(index, changedSymbols, entity)))
+					.buffer(this.batchSize)
+					.concatMap(batch -> this.repository.saveAll(batch)
+							.doOnNext(savedEntity -> index.put(this.symbolKey(savedEntity.getSymbol()), savedEntity))
+							.count());
+		}).reduce(0L, Long::sum).flatMap(count -> count == 0L ? Mono.just(count)
+				: this.symbolService.updateSearchIndex(index.values()).thenReturn(count)))
+				.doOnError(e -> this.init());
 	}
 
-	private Mono<SymbolEntity> updateEntity(SymbolEntity dbEntity, SymbolEntity importEntity) {
-		if (!dbEntity.equals(importEntity)) {
-			dbEntity.setName(importEntity.getName());
-			dbEntity.setSymbol(importEntity.getSymbol());
+	private Optional<SymbolEntity> diffEntity(Map<String, SymbolEntity> index, LongHashSet changedSymbols,
+			SymbolEntity importEntity) {
+		String key = this.symbolKey(importEntity.getSymbol());
+		long keyHash = ServiceUtils.fnvHash(key);
+		// a symbol is saved once per import, the first imported values win
+		if (changedSymbols.contains(keyHash)) {
+			return Optional.empty();
+		}
+		SymbolEntity indexEntity = index.putIfAbsent(key, importEntity);
+		if (indexEntity == null) {
+			changedSymbols.add(keyHash);
+			return Optional.of(importEntity);
+		}
+		if (Objects.equals(indexEntity.getName(), importEntity.getName())
+				&& Objects.equals(indexEntity.getSymbol(), importEntity.getSymbol())) {
+			return Optional.empty();
 		}
-		return Mono.just(dbEntity);
+		indexEntity.setName(importEntity.getName());
+		indexEntity.setSymbol(importEntity.getSymbol());
+		changedSymbols.add(keyHash);
+		return Optional.of(indexEntity);
+	}
+
+	private String symbolKey(String symbol) {
+		return symbol.toLowerCase();
 	}
 
 	private Flux<SymbolEntity> convert(HkSymbolImportDto dto) {
@@ -194,11 +231,12 @@ public class SymbolImportService {
 	}
 
 	private Mono<SymbolEntity> convertXetra(String symbolLine) {
-		String[] strParts = symbolLine.split(";");
+		String symbolPart = ServiceUtils.findField(symbolLine, ';', 7);
+		String namePart = ServiceUtils.findField(symbolLine, ';', 2);
 		String symbol = String.format("%s.DEX",
-				strParts[7].substring(0, strParts[7].length() < 15 ? strParts[7].length() : 15));
+				symbolPart.substring(0, symbolPart.length() < 15 ? symbolPart.length() : 15));
 		SymbolEntity entity = new SymbolEntity(null, symbol,
-				strParts[2].substring(0, strParts[2].length() < 100 ? strParts[2].length() : 100), SymbolCurrency.EUR,
+				namePart.substring(0, namePart.length() < 100 ? namePart.length() : 100), SymbolCurrency.EUR,
 				QuoteSource.ALPHAVANTAGE);
 		return Mono.just(entity);
 	}
@@ -0,0 +1,178 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import ch.xxx.manager.entity.SymbolEntity;
+
+/**
+ * Immutable in memory search index of the symbols. Symbol and name prefixes
+ * are found with a binary search in the sorted keys, infixes with the
+ * intersection of the trigram postings of symbols and names.
+ * The results are ranked: exact matches of symbols and names, then prefix
+ * matches, then infix matches.
+ */
+public class SymbolSearchIndex {
+	public static final SymbolSearchIndex EMPTY = new SymbolSearchIndex(List.of());
+	private static final int GRAM_LENGTH = 3;
+	private final SymbolEntity[] entities;
+	private final String[] symbolKeys;
+	private final String[] nameKeys;
+	private final int[] symbolOrder;
+	private final int[] nameOrder;
+	private final Map<Long, int[]> postings;
+
+	public SymbolSearchIndex(Collection<SymbolEntity> symbolEntities) {
+		this.entities = symbolEntities.toArray(new SymbolEntity[symbolEntities.size()]);
+		this.symbolKeys = new String[this.entities.length];
+		this.nameKeys = new String[this.entities.length];
+		for (int i = 0; i < this.entities.length; i++) {
+			this.symbolKeys[i] = this.toKey(this.entities[i].getSymbol());
+			this.nameKeys[i] = this.toKey(this.entities[i].getName());
+		}
+		this.symbolOrder = this.sortedOrder(this.symbolKeys);
+		this.nameOrder = this.sortedOrder(this.nameKeys);
+		this.postings = this.createPostings();
+	}
+
+	public int size() {
+		return this.entities.length;
+	}
+
+	public List<SymbolEntity> search(String query, int limit) {
+		String key = this.toKey(query);
+		List<SymbolEntity> result = new ArrayList<>();
+		if (key.isEmpty() || limit <= 0) {
+			return result;
+		}
+		boolean[] found = new boolean[this.entities.length];
+		this.addPrefixMatches(key, this.symbolKeys, this.symbolOrder, true, found, result, limit);
+		this.addPrefixMatches(key, this.nameKeys, this.nameOrder, true, found, result, limit);
+		this.addPrefixMatches(key, this.symbolKeys, this.symbolOrder, false, found, result, limit);
+		this.addPrefixMatches(key, this.nameKeys, this.nameOrder, false, found, result, limit);
+		if (result.size() < limit && key.length() >= GRAM_LENGTH) {
+			this.addInfixMatches(key, found, result, limit);
+		}
+		return result;
+	}
+
+	private void addPrefixMatches(String key, String[] keys, int[] order, boolean exact, boolean[] found,
+			List<SymbolEntity> result, int limit) {
+		// the exact matches are the first keys of the prefix range
+		for (int i = this.lowerBound(key, keys, order); i < order.length && result.size() < limit
+				&& (exact ? keys[order[i]].equals(key) : keys[order[i]].startsWith(key)); i++) {
+			if (!found[order[i]]) {
+				found[order[i]] = true;
+				result.add(this.entities[order[i]]);
+			}
+		}
+	}
+
+	private void addInfixMatches(String key, boolean[] found, List<SymbolEntity> result, int limit) {
+		List<int[]> keyPostings = new ArrayList<>();
+		for (int i = 0; i + GRAM_LENGTH <= key.length(); i++) {
+			int[] entries = this.postings.get(this.gram(key, i));
+			if (entries == null) {
+				return;
+			}
+			keyPostings.add(entries);
+		}
+		keyPostings.sort(Comparator.comparingInt(entries -> entries.length));
+		int[] candidates = keyPostings.get(0);
+		List<Integer> matches = new ArrayList<>();
+		for (int entry : candidates) {
+			if (!found[entry] && this.containsAll(keyPostings, entry)
+					&& (this.symbolKeys[entry].contains(key) || this.nameKeys[entry].contains(key))) {
+				matches.add(entry);
+			}
+		}
+		matches.sort(Comparator.comparing(entry -> this.symbolKeys[entry]));
+		for (int i = 0; i < matches.size() && result.size() < limit; i++) {
+			found[matches.get(i)] = true;
+			result.add(this.entities[matches.get(i)]);
+		}
+	}
+
+	private boolean containsAll(List<int[]> keyPostings, int entry) {
+		for (int i = 1; i < keyPostings.size(); i++) {
+			if (Arrays.binarySearch(keyPostings.get(i), entry) < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private int lowerBound(String key, String[] keys, int[] order) {
+		int low = 0;
+		int high = order.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (keys[order[middle]].compareTo(key) < 0) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	private int[] sortedOrder(String[] keys) {
+		return IntStream.range(0, keys.length).boxed().sorted(Comparator.comparing(index -> keys[index]))
+				.mapToInt(Integer::intValue).toArray();
+	}
+
+	private Map<Long, int[]> createPostings() {
+		// the entries are added in ascending order, the postings stay sorted
+		Map<Long, int[]> growingPostings = new HashMap<>();
+		for (int entry = 0; entry < this.entities.length; entry++) {
+			this.addGrams(growingPostings, this.symbolKeys[entry], entry);
+			this.addGrams(growingPostings, this.nameKeys[entry], entry);
+		}
+		Map<Long, int[]> result = new HashMap<>(growingPostings.size() * 4 / 3 + 1);
+		growingPostings.forEach((gram, entries) -> result.put(gram, Arrays.copyOfRange(entries, 1, entries[0] + 1)));
+		return result;
+	}
+
+	private void addGrams(Map<Long, int[]> growingPostings, String key, int entry) {
+		for (int i = 0; i + GRAM_LENGTH <= key.length(); i++) {
+			Long gram = this.gram(key, i);
+			// index 0 holds the number of entries
+			int[] entries = growingPostings.computeIfAbsent(gram, myGram -> new int[4]);
+			if (entries[0] > 0 && entries[entries[0]] == entry) {
+				continue;
+			}
+			if (entries[0] + 1 == entries.length) {
+				entries = Arrays.copyOf(entries, entries.length * 2);
+				growingPostings.put(gram, entries);
+			}
+			entries[0]++;
+			entries[entries[0]] = entry;
+		}
+	}
+
+	private long gram(String key, int start) {
+		return ((long) key.charAt(start) << 32) | ((long) key.charAt(start + 1) << 16) | key.charAt(start + 2);
+	}
+
+	private String toKey(String text) {
+		return text == null ? "" : text.trim().toLowerCase();
+	}
+}
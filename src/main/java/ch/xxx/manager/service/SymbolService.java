@@ -12,6 +12,11 @@
  */
 package ch.xxx.manager.service;
 
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -21,12 +26,16 @@ import ch.xxx.manager.entity.SymbolEntity;
 import ch.xxx.manager.repository.SymbolRepository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 @Service
 @Transactional
 public class SymbolService {
+	private static final Logger LOGGER = LoggerFactory.getLogger(SymbolService.class);
+	private static final int MAX_SEARCH_LIMIT = 100;
 	@Autowired
 	private SymbolRepository repository;
+	private final AtomicReference<SymbolSearchIndex> searchIndex = new AtomicReference<>(SymbolSearchIndex.EMPTY);
 
 	public Flux<SymbolDto> getAllSymbols() {
 		return this.repository.findAll().flatMap(entity -> this.convert(entity));
@@ -47,6 +56,26 @@ public class SymbolService {
 		return Flux.empty();
 	}
 
+	public Flux<SymbolDto> searchSymbols(String query, int limit) {
+		if (query == null || query.isBlank()) {
+			return Flux.empty();
+		}
+		return Flux.fromIterable(this.searchIndex.get().search(query, Math.min(limit, MAX_SEARCH_LIMIT)))
+				.flatMap(entity -> this.convert(entity));
+	}
+
+	/**
+	 * Builds a new search index of the symbols and replaces the current one, the
+	 * searches use the old index until it is replaced.
+	 */
+	public Mono<SymbolSearchIndex> updateSearchIndex(Collection<SymbolEntity> symbolEntities) {
+		return Mono.fromCallable(() -> new SymbolSearchIndex(symbolEntities)).subscribeOn(Schedulers.parallel())
+				.doOnNext(index -> {
+					this.searchIndex.set(index);
+					LOGGER.info("Symbol search index with {} symbols created.", index.size());
+				});
+	}
+
 	private Mono<SymbolDto> convert(SymbolEntity entity) {
 		return Mono.just(new SymbolDto(entity.getId(), entity.getSymbol(), entity.getName(), null, null, entity.getSource()));
 	}
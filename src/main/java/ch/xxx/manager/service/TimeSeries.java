@@ -0,0 +1,191 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable daily series with the days as sorted epoch days and the values as
+ * fixed point longs with scale 4, one array per column.
+ */
+public class TimeSeries {
+	public static final int VALUE_SCALE = 4;
+	public static final long VALUE_ONE = 10_000L;
+	public static final TimeSeries EMPTY = new TimeSeries(new int[0], new long[0]);
+	private final int[] epochDays;
+	private final long[] values;
+
+	private TimeSeries(int[] epochDays, long[] values) {
+		this.epochDays = epochDays;
+		this.values = values;
+	}
+
+	public int size() {
+		return this.epochDays.length;
+	}
+
+	public int getEpochDay(int index) {
+		return this.epochDays[index];
+	}
+
+	public long getValue(int index) {
+		return this.values[index];
+	}
+
+	public LocalDate getLocalDay(int index) {
+		return LocalDate.ofEpochDay(this.epochDays[index]);
+	}
+
+	public BigDecimal getDecimal(int index) {
+		return BigDecimal.valueOf(this.values[index], VALUE_SCALE);
+	}
+
+	/**
+	 * @return the index of the day or -1.
+	 */
+	public int indexOf(int epochDay) {
+		int index = Arrays.binarySearch(this.epochDays, epochDay);
+		return index < 0 ? -1 : index;
+	}
+
+	/**
+	 * @return the index of the last value on or before the day or -1.
+	 */
+	public int indexAsOf(int epochDay) {
+		int index = Arrays.binarySearch(this.epochDays, epochDay);
+		return index < 0 ? -index - 2 : index;
+	}
+
+	/**
+	 * Finds the indexes of the last values on or before the days in one pass. The
+	 * days are searched in ascending order, each binary search starts at the
+	 * index of the previous day. The result is in the order of the days, -1 for
+	 * days before the series.
+	 */
+	public int[] indexesAsOf(int... days) {
+		long[] positions = new long[days.length];
+		for (int i = 0; i < days.length; i++) {
+			positions[i] = ((long) days[i] << 32) | i;
+		}
+		Arrays.sort(positions);
+		int[] result = new int[days.length];
+		int low = 0;
+		for (long position : positions) {
+			int index = Arrays.binarySearch(this.epochDays, low, this.epochDays.length, (int) (position >> 32));
+			index = index < 0 ? -index - 2 : index;
+			result[(int) position] = index;
+			low = Math.max(low, index);
+		}
+		return result;
+	}
+
+	/**
+	 * Sums the series per day in one k-way merge over the sorted days. A series
+	 * counts on the days of its window activeFrom <= day < activeTo, its values
+	 * outside of the window are ignored. A day is only in the result if every
+	 * series of which the window contains the day has a value of the day.
+	 */
+	public static TimeSeries sumJoin(List<TimeSeries> series, int[] activeFrom, int[] activeTo) {
+		int[] cursors = new int[series.size()];
+		int maxSize = series.stream().mapToInt(TimeSeries::size).max().orElse(0);
+		Builder builder = new Builder(maxSize);
+		while (true) {
+			int day = Integer.MAX_VALUE;
+			for (int i = 0; i < cursors.length; i++) {
+				TimeSeries mySeries = series.get(i);
+				if (cursors[i] < mySeries.size() && mySeries.epochDays[cursors[i]] < day) {
+					day = mySeries.epochDays[cursors[i]];
+				}
+			}
+			if (day == Integer.MAX_VALUE) {
+				return builder.build();
+			}
+			long sum = 0L;
+			boolean active = false;
+			boolean complete = true;
+			for (int i = 0; i < cursors.length; i++) {
+				TimeSeries mySeries = series.get(i);
+				boolean inWindow = activeFrom[i] <= day && day < activeTo[i];
+				if (cursors[i] < mySeries.size() && mySeries.epochDays[cursors[i]] == day) {
+					if (inWindow) {
+						sum += mySeries.values[cursors[i]];
+						active = true;
+					}
+					cursors[i]++;
+				} else if (inWindow) {
+					complete = false;
+				}
+			}
+			if (active && complete) {
+				builder.add(day, sum);
+			}
+		}
+	}
+
+	/**
+	 * Collects the values of a series, the days may be added in any order. If a
+	 * day is added twice the last value wins.
+	 */
+	public static class Builder {
+		private int[] epochDays;
+		private long[] values;
+		private int size = 0;
+		private boolean sorted = true;
+
+		public Builder(int expectedSize) {
+			this.epochDays = new int[Math.max(expectedSize, 16)];
+			this.values = new long[this.epochDays.length];
+		}
+
+		public Builder add(int epochDay, long value) {
+			if (this.size == this.epochDays.length) {
+				this.epochDays = Arrays.copyOf(this.epochDays, this.size * 2);
+				this.values = Arrays.copyOf(this.values, this.size * 2);
+			}
+			this.sorted = this.sorted && (this.size == 0 || this.epochDays[this.size - 1] < epochDay);
+			this.epochDays[this.size] = epochDay;
+			this.values[this.size] = value;
+			this.size++;
+			return this;
+		}
+
+		public TimeSeries build() {
+			if (this.size == 0) {
+				return EMPTY;
+			}
+			if (this.sorted) {
+				return new TimeSeries(Arrays.copyOf(this.epochDays, this.size), Arrays.copyOf(this.values, this.size));
+			}
+			// sorts the positions by day, equal days keep the order they were added in
+			long[] positions = new long[this.size];
+			for (int i = 0; i < this.size; i++) {
+				positions[i] = ((long) this.epochDays[i] << 32) | i;
+			}
+			Arrays.sort(positions);
+			int[] sortedDays = new int[this.size];
+			long[] sortedValues = new long[this.size];
+			int sortedSize = 0;
+			for (long position : positions) {
+				int index = (int) position;
+				int slot = sortedSize > 0 && sortedDays[sortedSize - 1] == this.epochDays[index] ? sortedSize - 1
+						: sortedSize++;
+				sortedDays[slot] = this.epochDays[index];
+				sortedValues[slot] = this.values[index];
+			}
+			return new TimeSeries(Arrays.copyOf(sortedDays, sortedSize), Arrays.copyOf(sortedValues, sortedSize));
+		}
+	}
+}
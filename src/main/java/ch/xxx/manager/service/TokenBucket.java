@@ -0,0 +1,64 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager.service;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Non blocking token bucket. A caller reserves a token and gets the time it
+ * has to wait until the token is available, no thread is parked while waiting.
+ */
+public class TokenBucket {
+	private final long capacity;
+	private final double nanosPerToken;
+	private final LongSupplier nanoClock;
+	private double tokens;
+	private long lastRefill;
+
+	public TokenBucket(long requestsPerMinute, long capacity) {
+		this(requestsPerMinute, capacity, System::nanoTime);
+	}
+
+	public TokenBucket(long requestsPerMinute, long capacity, LongSupplier nanoClock) {
+		if (requestsPerMinute < 1 || capacity < 1) {
+			throw new IllegalArgumentException("RequestsPerMinute and capacity must be positive.");
+		}
+		this.capacity = capacity;
+		this.nanosPerToken = Duration.ofMinutes(1L).toNanos() / (double) requestsPerMinute;
+		this.nanoClock = nanoClock;
+		this.tokens = capacity;
+		this.lastRefill = nanoClock.getAsLong();
+	}
+
+	public Mono<Void> acquire() {
+		return Mono.defer(() -> {
+			long waitNanos = this.reserve();
+			return waitNanos == 0L ? Mono.empty() : Mono.delay(Duration.ofNanos(waitNanos)).then();
+		});
+	}
+
+	/**
+	 * Takes a token, the balance may get negative for reserved tokens.
+	 * @return the nanos to wait until the reserved token is refilled.
+	 */
+	public synchronized long reserve() {
+		long now = this.nanoClock.getAsLong();
+		this.tokens = Math.min(this.capacity, this.tokens + (now - this.lastRefill) / this.nanosPerToken);
+		this.lastRefill = now;
+		this.tokens -= 1.0;
+		return this.tokens >= 0.0 ? 0L : (long) Math.ceil(-this.tokens * this.nanosPerToken);
+	}
+}
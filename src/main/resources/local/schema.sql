@@ -5,4 +5,8 @@ create table currency (id bigint identity primary key, local_day timestamp, from
 create table daily_quote (id bigint identity primary key,symbol varchar(15), open numeric(12,4), high numeric(12,4), low numeric(12,4), close numeric(12,4), volume bigint, local_day date, symbol_id bigint, currency_id bigint, foreign key (symbol_id) references symbol(id), foreign key (currency_id) references currency(id));
 create table intra_day_quote (id bigint identity primary key, symbol varchar(15), open numeric(12,4), high numeric(12,4), low numeric(12,4), close numeric(12,4), volume bigint, local_date_time timestamp, symbol_id bigint, foreign key (symbol_id) references symbol(id));
 create table portfolio (id bigint identity primary key, user_id bigint, created_at date, name varchar(50), month1 numeric(12,4), month6 numeric(12,4), year1 numeric(12,4), year2 numeric(12,4), year5 numeric(12,4), year10 numeric(12,4), foreign key (user_id) references appuser(id));
-create table portfolio_to_symbol (id bigint identity primary key, portfolio_id bigint, symbol_id bigint, changed_at date, removed_at date, weight bigint, foreign key (portfolio_id) references portfolio(id), foreign key (symbol_id) references symbol(id));
\ No newline at end of file
+create table portfolio_to_symbol (id bigint identity primary key, portfolio_id bigint, symbol_id bigint, changed_at date, removed_at date, weight bigint, foreign key (portfolio_id) references portfolio(id), foreign key (symbol_id) references symbol(id));
+create table portfolio_value (portfolio_id bigint not null, local_day date not null, close numeric(16,4), primary key (portfolio_id, local_day), foreign key (portfolio_id) references portfolio(id));
+create table import_watermark (id bigint identity primary key, symbol_id bigint unique, source varchar(15), last_day date, last_run timestamp, foreign key (symbol_id) references symbol(id));
+create table import_job (id bigint identity primary key, symbol_id bigint, symbol varchar(15), source varchar(15), priority int, state varchar(10), attempts int, run_day date, updated_at timestamp, unique (symbol_id, run_day), foreign key (symbol_id) references symbol(id));
+create unique index daily_quote_symbol_id_local_day on daily_quote (symbol_id, local_day);
\ No newline at end of file
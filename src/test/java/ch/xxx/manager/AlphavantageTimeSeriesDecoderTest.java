@@ -0,0 +1,64 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ch.xxx.manager.connector.AlphavantageTimeSeriesDecoder;
+import ch.xxx.manager.dto.DailyQuoteImportDto;
+
+public class AlphavantageTimeSeriesDecoderTest {
+	private static final String DAILY_JSON = "{\"Meta Data\": {\"1. Information\": \"Daily Time Series\", \"2. Symbol\": \"IBM\"},"
+			+ "\"Time Series (Daily)\": {"
+			+ "\"2020-06-19\": {\"1. open\": \"124.1000\", \"2. high\": \"124.2700\", \"3. low\": \"122.6200\", \"4. close\": \"123.3500\", "
+			+ "\"5. adjusted close\": \"123.3500\", \"6. volume\": \"3421462\", \"7. dividend amount\": \"0.0000\", \"8. split coefficient\": \"1.0000\"},"
+			+ "\"2020-06-18\": {\"1. open\": \"121.0000\", \"2. high\": \"122.5000\", \"3. low\": \"120.8000\", \"4. close\": \"121.9000\", "
+			+ "\"5. adjusted close\": \"121.9000\", \"6. volume\": \"4213456\", \"7. dividend amount\": \"0.0000\", \"8. split coefficient\": \"1.0000\"}}}";
+
+	@Test
+	public void decodeChunkedTimeSeries() {
+		byte[] bytes = DAILY_JSON.getBytes(StandardCharsets.UTF_8);
+		AlphavantageTimeSeriesDecoder<DailyQuoteImportDto> decoder = new AlphavantageTimeSeriesDecoder<>(
+				new ObjectMapper(), DailyQuoteImportDto.class);
+		List<Entry<String, DailyQuoteImportDto>> quotes = new ArrayList<>();
+		for (int i = 0; i < bytes.length; i += 13) {
+			quotes.addAll(decoder.decode(Arrays.copyOfRange(bytes, i, Math.min(bytes.length, i + 13))));
+		}
+		quotes.addAll(decoder.endOfInput());
+		Assertions.assertEquals(2, quotes.size());
+		Assertions.assertEquals("2020-06-19", quotes.get(0).getKey());
+		Assertions.assertEquals("124.1000", quotes.get(0).getValue().getOpen());
+		Assertions.assertEquals("3421462", quotes.get(0).getValue().getVolume());
+		Assertions.assertEquals("2020-06-18", quotes.get(1).getKey());
+		Assertions.assertEquals("121.9000", quotes.get(1).getValue().getAjustedClose());
+	}
+
+	@Test
+	public void decodeMessageWithoutTimeSeries() {
+		AlphavantageTimeSeriesDecoder<DailyQuoteImportDto> decoder = new AlphavantageTimeSeriesDecoder<>(
+				new ObjectMapper(), DailyQuoteImportDto.class);
+		List<Entry<String, DailyQuoteImportDto>> quotes = new ArrayList<>(
+				decoder.decode("{\"Note\": \"API call frequency exceeded.\"}".getBytes(StandardCharsets.UTF_8)));
+		quotes.addAll(decoder.endOfInput());
+		Assertions.assertTrue(quotes.isEmpty());
+	}
+}
@@ -0,0 +1,122 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import ch.xxx.manager.dto.PortfolioDto;
+import ch.xxx.manager.entity.AppUserEntity;
+import ch.xxx.manager.entity.DailyQuoteEntity;
+import ch.xxx.manager.entity.SymbolEntity;
+import ch.xxx.manager.entity.SymbolEntity.QuoteSource;
+import ch.xxx.manager.entity.SymbolEntity.SymbolCurrency;
+import ch.xxx.manager.repository.AppUserRepository;
+import ch.xxx.manager.repository.DailyQuoteRepository;
+import ch.xxx.manager.repository.SymbolRepository;
+import ch.xxx.manager.service.PortfolioService;
+import reactor.blockhound.BlockHound;
+import reactor.blockhound.BlockingOperationError;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+/**
+ * Runs the portfolio paths on non blocking reactor threads with BlockHound
+ * installed, a blocking call fails the test. Enabled with: ./gradlew test
+ * -PwithBlockHound
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "blockhound.enabled", matches = "true")
+public class BlockHoundIntegrationTest {
+	@Autowired
+	private AppUserRepository appUserRepository;
+	@Autowired
+	private SymbolRepository symbolRepository;
+	@Autowired
+	private DailyQuoteRepository dailyQuoteRepository;
+	@Autowired
+	private PortfolioService portfolioService;
+
+	@BeforeAll
+	public static void installBlockHound() {
+		// the in memory h2 driver of the tests runs jdbc code, logging writes to the
+		// console. Both are not part of the reactive paths in production.
+		BlockHound.builder().allowBlockingCallsInside("io.r2dbc.h2.client.SessionClient", "<init>")
+				.allowBlockingCallsInside("io.r2dbc.h2.client.SessionClient", "prepareCommand")
+				.allowBlockingCallsInside("io.r2dbc.h2.client.SessionClient", "query")
+				.allowBlockingCallsInside("io.r2dbc.h2.client.SessionClient", "update")
+				.allowBlockingCallsInside("io.r2dbc.h2.client.SessionClient", "execute")
+				.allowBlockingCallsInside("io.r2dbc.h2.client.SessionClient", "close")
+				.allowBlockingCallsInside("ch.qos.logback.core.OutputStreamAppender", "subAppend").install();
+	}
+
+	@Test
+	public void blockingCallFails() {
+		StepVerifier.create(this.onParallel(() -> Mono.fromCallable(() -> {
+			Thread.sleep(1L);
+			return 1L;
+		}))).verifyErrorMatches(error -> error instanceof BlockingOperationError);
+	}
+
+	@Test
+	public void portfolioPathsDoNotBlock() {
+		AppUserEntity user = this.appUserRepository.findByUsername("max").block();
+		SymbolEntity symbol = this.symbolRepository.save(
+				new SymbolEntity(null, "BLOCKHOUND", "BlockHound Test", SymbolCurrency.EUR, QuoteSource.YAHOO))
+				.block();
+		LocalDate today = LocalDate.now();
+		this.dailyQuoteRepository
+				.saveAll(Flux.range(0, 30).map(days -> this.createQuote(symbol, today.minusDays(days)))).blockLast();
+		PortfolioDto portfolio = this.onParallel(() -> this.portfolioService.addPortfolio(new PortfolioDto(null,
+				user.getId(), "BlockHound", LocalDateTime.now(), null, null, null, null, null, null))).block();
+
+		StepVerifier.create(this.onParallel(() -> this.portfolioService.addSymbolToPortfolio(portfolio,
+				symbol.getId(), 10L, LocalDateTime.now().minusDays(20L)))).expectNextCount(1L).verifyComplete();
+		StepVerifier.create(this.onParallel(() -> this.portfolioService.updatePortfolioSymbolWeight(portfolio,
+				symbol.getId(), 20L, LocalDateTime.now().minusDays(10L)))).expectNextCount(1L).verifyComplete();
+		StepVerifier
+				.create(this.onParallel(() -> this.portfolioService
+						.getPortfolioValuesAtHorizons(portfolio.getId(), List.of("1w", "ytd")).collectList()))
+				.expectNextMatches(values -> values.size() == 2).verifyComplete();
+		StepVerifier.create(this.onParallel(() -> this.portfolioService.removeSymbolFromPortfolio(portfolio.getId(),
+				symbol.getId(), LocalDateTime.now()))).expectNextCount(1L).verifyComplete();
+	}
+
+	private <T> Mono<T> onParallel(Supplier<Mono<T>> monoSupplier) {
+		return Mono.defer(monoSupplier).subscribeOn(Schedulers.parallel());
+	}
+
+	private DailyQuoteEntity createQuote(SymbolEntity symbol, LocalDate localDay) {
+		DailyQuoteEntity entity = new DailyQuoteEntity();
+		entity.setSymbol(symbol.getSymbol());
+		entity.setSymbolId(symbol.getId());
+		entity.setLocalDay(localDay);
+		entity.setOpen(BigDecimal.valueOf(100L + localDay.getDayOfMonth()));
+		entity.setHigh(entity.getOpen());
+		entity.setLow(entity.getOpen());
+		entity.setClose(entity.getOpen());
+		entity.setVolume(1000L);
+		return entity;
+	}
+}
@@ -0,0 +1,82 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import ch.xxx.manager.connector.ConnectorClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.test.StepVerifier;
+
+public class ConnectorClientTest {
+	private final AtomicInteger requests = new AtomicInteger();
+	private DisposableServer stubServer;
+	private ConnectorClient connectorClient;
+
+	@BeforeEach
+	public void setup() {
+		this.stubServer = HttpServer.create().port(0)
+				.route(routes -> routes
+						.get("/unavailable",
+								(request, response) -> this.requests.incrementAndGet() < 3
+										? response.status(503).send()
+										: response.sendString(Mono.just("ok")))
+						.get("/missing", (request, response) -> {
+							this.requests.incrementAndGet();
+							return response.status(404).send();
+						}))
+				.bindNow();
+		this.connectorClient = new ConnectorClient();
+		ReflectionTestUtils.setField(this.connectorClient, "connectTimeoutMs", 1000);
+		ReflectionTestUtils.setField(this.connectorClient, "readTimeoutMs", 1000L);
+		ReflectionTestUtils.setField(this.connectorClient, "maxConnectionsPerHost", 2);
+		ReflectionTestUtils.setField(this.connectorClient, "pendingAcquireTimeoutMs", 1000L);
+		ReflectionTestUtils.setField(this.connectorClient, "retryMaxAttempts", 3L);
+		ReflectionTestUtils.setField(this.connectorClient, "retryMinBackoffMs", 10L);
+		this.connectorClient.init();
+	}
+
+	@AfterEach
+	public void cleanup() {
+		this.connectorClient.destroy();
+		this.stubServer.disposeNow();
+	}
+
+	@Test
+	public void retryServerErrors() throws Exception {
+		StepVerifier.create(this.connectorClient.getMono(this.createUri("/unavailable"), String.class))
+				.expectNext("ok").verifyComplete();
+		Assertions.assertEquals(3, this.requests.get());
+	}
+
+	@Test
+	public void noRetryForClientErrors() throws Exception {
+		StepVerifier.create(this.connectorClient.getMono(this.createUri("/missing"), String.class))
+				.expectError(WebClientResponseException.class).verify();
+		Assertions.assertEquals(1, this.requests.get());
+	}
+
+	private URI createUri(String path) throws Exception {
+		return new URI(String.format("http://localhost:%d%s", this.stubServer.port(), path));
+	}
+}
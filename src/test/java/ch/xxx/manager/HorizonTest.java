@@ -0,0 +1,54 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import ch.xxx.manager.service.Horizon;
+import ch.xxx.manager.service.TimeSeries;
+
+public class HorizonTest {
+	private static final LocalDate TODAY = LocalDate.of(2020, 6, 19);
+
+	@Test
+	public void parseHorizons() {
+		Assertions.assertEquals(LocalDate.of(2019, 12, 31), Horizon.parse("YTD", TODAY).getLocalDay());
+		Assertions.assertEquals(LocalDate.of(2020, 5, 19), Horizon.parse("1m", TODAY).getLocalDay());
+		Assertions.assertEquals(LocalDate.of(2017, 6, 19), Horizon.parse("3y", TODAY).getLocalDay());
+		Assertions.assertEquals(LocalDate.of(2020, 6, 5), Horizon.parse("2w", TODAY).getLocalDay());
+		Assertions.assertEquals(LocalDate.of(2020, 1, 31), Horizon.parse("2020-01-31", TODAY).getLocalDay());
+	}
+
+	@Test
+	public void rejectUnknownHorizons() {
+		for (String horizon : new String[] { "1x", "", "1000y", "2020-13-01" }) {
+			ResponseStatusException exception = Assertions.assertThrows(ResponseStatusException.class,
+					() -> Horizon.parse(horizon, TODAY));
+			Assertions.assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+		}
+		Assertions.assertThrows(ResponseStatusException.class, () -> Horizon.parse(null, TODAY));
+	}
+
+	@Test
+	public void findValuesAsOfHorizons() {
+		TimeSeries series = new TimeSeries.Builder(4).add(10, 1L).add(20, 2L).add(30, 3L).add(40, 4L).build();
+		Assertions.assertArrayEquals(new int[] { 3, -1, 1, 0, 2, 3 }, series.indexesAsOf(45, 5, 25, 10, 30, 40));
+		Assertions.assertEquals(1, series.indexAsOf(29));
+		Assertions.assertEquals(-1, series.indexAsOf(9));
+	}
+}
@@ -0,0 +1,59 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import ch.xxx.manager.service.IndexComparison;
+import ch.xxx.manager.service.TimeSeries;
+
+public class IndexComparisonTest {
+
+	@Test
+	public void replayChangesWithIndexShares() {
+		TimeSeries changes = new TimeSeries.Builder(2).add(10, 1000L).add(20, -250L).build();
+		TimeSeries index = new TimeSeries.Builder(4).add(9, 100L).add(11, 200L).add(20, 100L).add(21, 200L).build();
+		TimeSeries result = IndexComparison.compare(changes, index);
+		Assertions.assertEquals(3, result.size());
+		Assertions.assertEquals(11, result.getEpochDay(0));
+		Assertions.assertEquals(1000L, result.getValue(0));
+		Assertions.assertEquals(250L, result.getValue(1));
+		Assertions.assertEquals(500L, result.getValue(2));
+	}
+
+	@Test
+	public void compareWithoutChanges() {
+		TimeSeries index = new TimeSeries.Builder(1).add(9, 100L).build();
+		Assertions.assertEquals(0, IndexComparison.compare(TimeSeries.EMPTY, index).size());
+	}
+
+	@Test
+	public void walkIndexesOnce() {
+		TimeSeries changes = new TimeSeries.Builder(1).add(10, 1000L).build();
+		TimeSeries index1 = new TimeSeries.Builder(3).add(10, 100L).add(12, 200L).add(13, 100L).build();
+		TimeSeries index2 = new TimeSeries.Builder(2).add(11, 50L).add(13, 25L).build();
+		IndexComparison comparison = new IndexComparison(changes, List.of(index1, index2));
+		long[][] expected = { { 10, 1000L, IndexComparison.MISSING }, { 11, 1000L, 1000L }, { 12, 2000L, 1000L },
+				{ 13, 1000L, 500L } };
+		for (long[] row : expected) {
+			Assertions.assertTrue(comparison.next());
+			Assertions.assertEquals(row[0], comparison.getEpochDay());
+			Assertions.assertEquals(row[1], comparison.getValue(0));
+			Assertions.assertEquals(row[2], comparison.getValue(1));
+		}
+		Assertions.assertFalse(comparison.next());
+	}
+}
@@ -0,0 +1,57 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import ch.xxx.manager.entity.DailyQuoteEntity;
+import ch.xxx.manager.entity.SymbolEntity;
+import ch.xxx.manager.entity.SymbolEntity.QuoteSource;
+import ch.xxx.manager.entity.SymbolEntity.SymbolCurrency;
+import ch.xxx.manager.repository.DailyQuoteRepository;
+import ch.xxx.manager.repository.SymbolRepository;
+import ch.xxx.manager.service.IndexSeriesCache;
+import ch.xxx.manager.service.TimeSeries;
+import reactor.core.publisher.Flux;
+
+@SpringBootTest
+public class IndexSeriesCacheTest {
+	@Autowired
+	private SymbolRepository symbolRepository;
+	@Autowired
+	private DailyQuoteRepository dailyQuoteRepository;
+	@Autowired
+	private IndexSeriesCache indexSeriesCache;
+
+	@Test
+	public void readMixedCaseSymbol() {
+		SymbolEntity symbol = this.symbolRepository
+				.save(new SymbolEntity(null, "IdxMix.DE", "Mixed Case Index", SymbolCurrency.EUR, QuoteSource.YAHOO))
+				.block();
+		LocalDate today = LocalDate.now();
+		this.dailyQuoteRepository.saveAll(Flux.range(0, 3).map(days -> new DailyQuoteEntity(null, symbol.getSymbol(),
+				BigDecimal.TEN, BigDecimal.TEN, BigDecimal.TEN, BigDecimal.TEN, 1000L, today.minusDays(days),
+				symbol.getId(), null))).blockLast();
+
+		TimeSeries series = this.indexSeriesCache.getCloseSeries("IdxMix.DE").block();
+		Assertions.assertEquals(3, series.size());
+		Assertions.assertEquals(10L * TimeSeries.VALUE_ONE, series.getValue(0));
+		Assertions.assertEquals(3, this.indexSeriesCache.getCloseSeries("IDXMIX.DE").block().size());
+	}
+}
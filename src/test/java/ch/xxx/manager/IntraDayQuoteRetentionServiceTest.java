@@ -0,0 +1,73 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import ch.xxx.manager.entity.IntraDayQuoteEntity;
+import ch.xxx.manager.entity.SymbolEntity;
+import ch.xxx.manager.entity.SymbolEntity.QuoteSource;
+import ch.xxx.manager.entity.SymbolEntity.SymbolCurrency;
+import ch.xxx.manager.repository.IntraDayQuoteRepository;
+import ch.xxx.manager.repository.SymbolRepository;
+import ch.xxx.manager.service.IntraDayQuoteRetentionService;
+import reactor.core.publisher.Flux;
+
+@SpringBootTest(properties = "quote.intraday.retention-days=1")
+public class IntraDayQuoteRetentionServiceTest {
+	@Autowired
+	private SymbolRepository symbolRepository;
+	@Autowired
+	private IntraDayQuoteRepository intraDayQuoteRepository;
+	@Autowired
+	private IntraDayQuoteRetentionService intraDayQuoteRetentionService;
+
+	@Test
+	public void keepNewestDayPerSymbol() {
+		LocalDate today = LocalDate.now();
+		SymbolEntity current = this.createSymbol("RETCUR", today);
+		// the feed of this symbol stopped five days ago
+		SymbolEntity stopped = this.createSymbol("RETSTOP", today.minusDays(5L));
+
+		this.intraDayQuoteRetentionService.deleteOldQuotes().block();
+
+		Assertions.assertEquals(2L, this.intraDayQuoteRepository.findBySymbolId(current.getId())
+				.filter(quote -> quote.getLocalDateTime().toLocalDate().equals(today)).count().block());
+		Assertions.assertEquals(2L, this.intraDayQuoteRepository.findBySymbolId(current.getId()).count().block());
+		Assertions.assertEquals(2L, this.intraDayQuoteRepository.findBySymbolId(stopped.getId())
+				.filter(quote -> quote.getLocalDateTime().toLocalDate().equals(today.minusDays(5L))).count()
+				.block());
+		Assertions.assertEquals(2L, this.intraDayQuoteRepository.findBySymbolId(stopped.getId()).count().block());
+	}
+
+	private SymbolEntity createSymbol(String symbol, LocalDate newestDay) {
+		SymbolEntity symbolEntity = this.symbolRepository
+				.save(new SymbolEntity(null, symbol, symbol, SymbolCurrency.USD, QuoteSource.ALPHAVANTAGE)).block();
+		this.intraDayQuoteRepository.saveAll(Flux.just(newestDay.minusDays(1L), newestDay)
+				.flatMap(day -> Flux.just(day.atTime(10, 0), day.atTime(15, 0)))
+				.map(time -> this.createQuote(symbolEntity, time))).blockLast();
+		return symbolEntity;
+	}
+
+	private IntraDayQuoteEntity createQuote(SymbolEntity symbolEntity, LocalDateTime localDateTime) {
+		return new IntraDayQuoteEntity(null, symbolEntity.getSymbol(), BigDecimal.ONE, BigDecimal.ONE,
+				BigDecimal.ONE, BigDecimal.ONE, 100L, localDateTime, symbolEntity.getId());
+	}
+}
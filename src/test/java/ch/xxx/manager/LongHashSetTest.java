@@ -0,0 +1,56 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import ch.xxx.manager.service.LongHashSet;
+import ch.xxx.manager.service.ServiceUtils;
+
+public class LongHashSetTest {
+
+	@Test
+	public void addKeepsDistinctValuesOverResizes() {
+		LongHashSet set = new LongHashSet();
+		for (long value = -5000L; value < 5000L; value++) {
+			Assertions.assertTrue(set.add(value * 31L));
+		}
+		for (long value = -5000L; value < 5000L; value++) {
+			Assertions.assertFalse(set.add(value * 31L));
+			Assertions.assertTrue(set.contains(value * 31L));
+		}
+		Assertions.assertFalse(set.contains(1L));
+		Assertions.assertEquals(10000, set.size());
+	}
+
+	@Test
+	public void dedupSymbolsByHash() {
+		LongHashSet set = new LongHashSet(4);
+		Assertions.assertTrue(set.add(ServiceUtils.fnvHash("SAP.DEX")));
+		Assertions.assertTrue(set.add(ServiceUtils.fnvHash("SAPA.DEX")));
+		Assertions.assertFalse(set.add(ServiceUtils.fnvHash("SAP.DEX")));
+		Assertions.assertEquals(2, set.size());
+	}
+
+	@Test
+	public void findFieldWithoutSplit() {
+		String line = "Active;Active;SAP SE;DE0007164600;716460;;;SAP;XETR";
+		Assertions.assertEquals("Active", ServiceUtils.findField(line, ';', 0));
+		Assertions.assertEquals("SAP SE", ServiceUtils.findField(line, ';', 2));
+		Assertions.assertEquals("", ServiceUtils.findField(line, ';', 5));
+		Assertions.assertEquals("SAP", ServiceUtils.findField(line, ';', 7));
+		Assertions.assertEquals("XETR", ServiceUtils.findField(line, ';', 8));
+		Assertions.assertEquals("", ServiceUtils.findField(line, ';', 12));
+	}
+}
@@ -0,0 +1,70 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockftpserver.fake.FakeFtpServer;
+import org.mockftpserver.fake.UserAccount;
+import org.mockftpserver.fake.filesystem.FileEntry;
+import org.mockftpserver.fake.filesystem.FileSystem;
+import org.mockftpserver.fake.filesystem.UnixFakeFileSystem;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import ch.xxx.manager.connector.NasdaqConnector;
+
+public class NasdaqConnectorTest {
+	private FakeFtpServer ftpServer;
+	private NasdaqConnector connector;
+
+	@BeforeEach
+	public void init() {
+		FileSystem fileSystem = new UnixFakeFileSystem();
+		fileSystem.add(new FileEntry("/symboldirectory/nasdaqlisted.txt",
+				"Symbol|Security Name\nAAPL|Apple Inc. - Common Stock\nMSFT|Microsoft Corporation - Common Stock\n"));
+		fileSystem.add(new FileEntry("/symboldirectory/otherlisted.txt",
+				"ACT Symbol|Security Name\nIBM|International Business Machines Corporation Common Stock\n"));
+		this.ftpServer = new FakeFtpServer();
+		this.ftpServer.setServerControlPort(0);
+		this.ftpServer.addUserAccount(new UserAccount("anonymous", "sven@gmx.de", "/"));
+		this.ftpServer.setFileSystem(fileSystem);
+		this.ftpServer.start();
+		this.connector = new NasdaqConnector();
+		ReflectionTestUtils.setField(this.connector, "host", "localhost");
+		ReflectionTestUtils.setField(this.connector, "port", this.ftpServer.getServerControlPort());
+	}
+
+	@AfterEach
+	public void cleanup() {
+		this.ftpServer.stop();
+	}
+
+	@Test
+	public void streamBothFilesInOneSession() {
+		List<String> lines = this.connector.importSymbols().collectList().block();
+		Assertions.assertEquals(5, lines.size());
+		Assertions.assertEquals("AAPL|Apple Inc. - Common Stock", lines.get(1));
+		Assertions.assertEquals("IBM|International Business Machines Corporation Common Stock", lines.get(4));
+	}
+
+	@Test
+	public void readOnlyRequestedLines() {
+		List<String> lines = this.connector.importSymbols().take(2).collectList().block();
+		Assertions.assertEquals(2, lines.size());
+		Assertions.assertEquals("Symbol|Security Name", lines.get(0));
+	}
+}
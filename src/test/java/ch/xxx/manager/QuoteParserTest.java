@@ -0,0 +1,50 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import ch.xxx.manager.connector.QuoteParser;
+import ch.xxx.manager.connector.YahooQuoteLineParser;
+import ch.xxx.manager.dto.HkDailyQuoteImportDto;
+
+public class QuoteParserTest {
+
+	@Test
+	public void parseLikeJdk() {
+		for (String value : new String[] { "124.1000", "-0.5", "12", "+3.25", "1234567890123456789.5", "1E+3" }) {
+			Assertions.assertEquals(new BigDecimal(value), QuoteParser.parseDecimal(value));
+		}
+		Assertions.assertNull(QuoteParser.parseDecimal("null"));
+		Assertions.assertEquals(3421462L, QuoteParser.parseLong("3421462"));
+		Assertions.assertEquals(LocalDate.of(2020, 6, 19), QuoteParser.parseDate("2020-06-19"));
+		Assertions.assertEquals(LocalDateTime.of(2020, 6, 19, 15, 59, 0),
+				QuoteParser.parseDateTime("2020-06-19 15:59:00"));
+	}
+
+	@Test
+	public void parseYahooLine() {
+		YahooQuoteLineParser lineParser = new YahooQuoteLineParser("Date,Open,High,Low,Close,Adj Close,Volume");
+		HkDailyQuoteImportDto dto = lineParser.parse("2020-06-19,124.10,124.27,null,123.35,120.5,3421462");
+		Assertions.assertEquals(LocalDate.of(2020, 6, 19), dto.getDate());
+		Assertions.assertEquals(new BigDecimal("124.10"), dto.getOpen());
+		Assertions.assertNull(dto.getLow());
+		Assertions.assertEquals(new BigDecimal("120.5"), dto.getAdjClose());
+		Assertions.assertEquals(3421462L, dto.getVolume());
+	}
+}
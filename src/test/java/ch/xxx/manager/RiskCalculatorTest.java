@@ -0,0 +1,59 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import ch.xxx.manager.dto.PortfolioRiskDto;
+import ch.xxx.manager.service.RiskCalculator;
+import ch.xxx.manager.service.TimeSeries;
+import ch.xxx.manager.service.Tuple3;
+
+public class RiskCalculatorTest {
+	private static final TimeSeries PORTFOLIO = new TimeSeries.Builder(4).add(10, 100L).add(11, 110L).add(12, 99L)
+			.add(13, 120L).build();
+
+	@Test
+	public void calculateRiskInOnePass() {
+		TimeSeries index = new TimeSeries.Builder(4).add(9, 50L).add(11, 55L).add(12, 49L).add(13, 60L).build();
+		PortfolioRiskDto dto = RiskCalculator.calculate(PORTFOLIO, new int[0],
+				List.of(new Tuple3<>("INDEX", "IDX", index)), 0.0);
+		Assertions.assertEquals(3, dto.getReturns());
+		Assertions.assertEquals(-0.1, dto.getMaxDrawdown(), 1E-9);
+		Assertions.assertEquals(LocalDate.ofEpochDay(11), dto.getDrawdownPeakDay());
+		Assertions.assertEquals(LocalDate.ofEpochDay(12), dto.getDrawdownTroughDay());
+		double[] returns = { 0.1, 99.0 / 110.0 - 1.0, 120.0 / 99.0 - 1.0 };
+		double mean = (returns[0] + returns[1] + returns[2]) / 3.0;
+		double variance = 0.0;
+		for (double myReturn : returns) {
+			variance += (myReturn - mean) * (myReturn - mean) / 2.0;
+		}
+		Assertions.assertEquals(Math.sqrt(variance * RiskCalculator.TRADING_DAYS), dto.getVolatility(), 1E-9);
+		Assertions.assertEquals(mean * RiskCalculator.TRADING_DAYS / dto.getVolatility(), dto.getSharpeRatio(), 1E-9);
+		Assertions.assertEquals(3, dto.getIndexes().get(0).getReturns());
+		Assertions.assertEquals(1.0, dto.getIndexes().get(0).getCorrelation(), 0.1);
+	}
+
+	@Test
+	public void skipReturnsOverCompositionChanges() {
+		PortfolioRiskDto dto = RiskCalculator.calculate(PORTFOLIO, new int[] { 5, 13 }, List.of(), 0.0);
+		Assertions.assertEquals(2, dto.getReturns());
+		Assertions.assertEquals(LocalDate.ofEpochDay(10), dto.getFromDay());
+		Assertions.assertEquals(LocalDate.ofEpochDay(13), dto.getToDay());
+		Assertions.assertTrue(dto.getIndexes().isEmpty());
+	}
+}
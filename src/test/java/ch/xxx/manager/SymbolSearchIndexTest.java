@@ -0,0 +1,65 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import ch.xxx.manager.entity.SymbolEntity;
+import ch.xxx.manager.entity.SymbolEntity.QuoteSource;
+import ch.xxx.manager.entity.SymbolEntity.SymbolCurrency;
+import ch.xxx.manager.service.SymbolSearchIndex;
+
+public class SymbolSearchIndexTest {
+	private final SymbolSearchIndex index = new SymbolSearchIndex(List.of(
+			this.createEntity(1L, "SAPA", "Sapiens International"), this.createEntity(2L, "SAP", "SAP SE"),
+			this.createEntity(3L, "MSFT", "Microsoft Corporation"), this.createEntity(4L, "IBM", "IBM"),
+			this.createEntity(5L, "ISAP.DEX", "Isap Holding"), this.createEntity(6L, "CRM", "Salesforce.com"),
+			this.createEntity(7L, "MSI", "Motorola Solutions")));
+
+	@Test
+	public void rankExactPrefixInfix() {
+		Assertions.assertEquals(List.of("SAP", "SAPA", "ISAP.DEX"), this.symbols(this.index.search("sap", 10)));
+	}
+
+	@Test
+	public void exactNameBeforePrefix() {
+		Assertions.assertEquals(List.of("IBM"), this.symbols(this.index.search("Ibm", 10)));
+		Assertions.assertEquals(List.of("MSFT", "MSI"), this.symbols(this.index.search("ms", 10)));
+	}
+
+	@Test
+	public void findInfixOfNames() {
+		Assertions.assertEquals(List.of("CRM"), this.symbols(this.index.search("force", 10)));
+		Assertions.assertEquals(List.of("MSFT"), this.symbols(this.index.search("corpo", 10)));
+		Assertions.assertTrue(this.index.search("xyz", 10).isEmpty());
+	}
+
+	@Test
+	public void limitResults() {
+		Assertions.assertEquals(List.of("SAP"), this.symbols(this.index.search("sap", 1)));
+		Assertions.assertTrue(this.index.search(" ", 10).isEmpty());
+		Assertions.assertTrue(SymbolSearchIndex.EMPTY.search("sap", 10).isEmpty());
+	}
+
+	private List<String> symbols(List<SymbolEntity> entities) {
+		return entities.stream().map(SymbolEntity::getSymbol).collect(Collectors.toList());
+	}
+
+	private SymbolEntity createEntity(Long id, String symbol, String name) {
+		return new SymbolEntity(id, symbol, name, SymbolCurrency.USD, QuoteSource.ALPHAVANTAGE);
+	}
+}
@@ -0,0 +1,62 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import ch.xxx.manager.service.TimeSeries;
+
+public class TimeSeriesTest {
+
+	@Test
+	public void buildSortsDaysAndKeepsLastValue() {
+		TimeSeries series = new TimeSeries.Builder(2).add(12, 3L).add(10, 1L).add(11, 2L).add(10, 4L).build();
+		Assertions.assertEquals(3, series.size());
+		Assertions.assertEquals(10, series.getEpochDay(0));
+		Assertions.assertEquals(4L, series.getValue(0));
+		Assertions.assertEquals(12, series.getEpochDay(2));
+		Assertions.assertEquals(1, series.indexOf(11));
+		Assertions.assertEquals(-1, series.indexOf(13));
+	}
+
+	@Test
+	public void sumJoinSkipsDaysWithMissingActiveValues() {
+		TimeSeries first = new TimeSeries.Builder(4).add(1, 10L).add(2, 20L).add(3, 30L).add(5, 50L).build();
+		TimeSeries second = new TimeSeries.Builder(4).add(1, 1L).add(2, 2L).add(4, 4L).add(5, 5L).build();
+		// the second series is held from day 2, its value of day 1 does not count
+		TimeSeries sum = TimeSeries.sumJoin(List.of(first, second), new int[] { 0, 2 },
+				new int[] { Integer.MAX_VALUE, Integer.MAX_VALUE });
+		Assertions.assertEquals(3, sum.size());
+		Assertions.assertEquals(1, sum.getEpochDay(0));
+		Assertions.assertEquals(10L, sum.getValue(0));
+		Assertions.assertEquals(2, sum.getEpochDay(1));
+		Assertions.assertEquals(22L, sum.getValue(1));
+		Assertions.assertEquals(5, sum.getEpochDay(2));
+		Assertions.assertEquals(55L, sum.getValue(2));
+	}
+
+	@Test
+	public void sumJoinEndsWithRemovedSeries() {
+		TimeSeries first = new TimeSeries.Builder(3).add(1, 10L).add(2, 20L).add(3, 30L).build();
+		TimeSeries second = new TimeSeries.Builder(1).add(1, 1L).build();
+		TimeSeries sum = TimeSeries.sumJoin(List.of(first, second), new int[] { 0, 0 },
+				new int[] { Integer.MAX_VALUE, 2 });
+		Assertions.assertEquals(3, sum.size());
+		Assertions.assertEquals(11L, sum.getValue(0));
+		Assertions.assertEquals(30L, sum.getValue(2));
+		Assertions.assertEquals(0, TimeSeries.sumJoin(List.of(), new int[0], new int[0]).size());
+	}
+}
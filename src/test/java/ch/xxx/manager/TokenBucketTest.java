@@ -0,0 +1,38 @@
+/**
+ *    Copyright 2019 Sven Loesekann
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+       http://www.apache.org/licenses/LICENSE-2.0
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package ch.xxx.manager;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import ch.xxx.manager.service.TokenBucket;
+
+public class TokenBucketTest {
+
+	@Test
+	public void reserveWaitsForRefill() {
+		AtomicLong nanoTime = new AtomicLong(0L);
+		TokenBucket tokenBucket = new TokenBucket(60L, 2L, nanoTime::get);
+		Assertions.assertEquals(0L, tokenBucket.reserve());
+		Assertions.assertEquals(0L, tokenBucket.reserve());
+		Assertions.assertEquals(TimeUnit.SECONDS.toNanos(1L), tokenBucket.reserve());
+		Assertions.assertEquals(TimeUnit.SECONDS.toNanos(2L), tokenBucket.reserve());
+		nanoTime.set(TimeUnit.SECONDS.toNanos(10L));
+		Assertions.assertEquals(0L, tokenBucket.reserve());
+		Assertions.assertEquals(0L, tokenBucket.reserve());
+		Assertions.assertEquals(TimeUnit.SECONDS.toNanos(1L), tokenBucket.reserve());
+	}
+}